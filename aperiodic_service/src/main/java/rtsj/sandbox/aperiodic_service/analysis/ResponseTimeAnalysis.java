@@ -0,0 +1,362 @@
+package rtsj.sandbox.aperiodic_service.analysis;
+
+import javax.realtime.RelativeTime;
+
+import rtsj.sandbox.aperiodic_service.common.PeriodicTask;
+import rtsj.sandbox.common.TimeUtils;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Fixed-priority response-time analysis for a periodic task-set running
+ * alongside aperiodic servers (implicit deadlines, i.e. D = T).
+ * 
+ * The worst-case response time of each task is the least fixed point of
+ * 
+ * R = C + sum over higher or equal priority tasks (j) of ceil((R + Jj) / Tj) *
+ * Cj
+ * 
+ * where the release jitter (Jj) is zero for periodic tasks, polling servers and
+ * sporadic servers (all of which behave like periodic tasks) and (Tj - Cj) for
+ * a deferrable server, which can execute its budget at the end of one period
+ * and again at the start of the next (the "double-hit").
+ * 
+ * All storage is allocated in the constructor and tasks are kept sorted by
+ * priority as they are added, so analyse(), canAdmit() and canChange() do not
+ * allocate.
+ * Each task's fixed point iteration is seeded with (R + C) of the task above
+ * it, which is a lower bound of its response time, so the whole task-set is
+ * usually analysed with very few iterations per task. canAdmit() only
+ * re-analyses the tasks at or below the candidate's priority since tasks above
+ * it are unaffected, which makes it cheap enough for online admission
+ * decisions.
+ * 
+ * Priority ties are (pessimistically) assumed to interfere with each other.
+ * 
+ * Not thread-safe.
+ * 
+ */
+public class ResponseTimeAnalysis {
+
+	public enum TaskKind {
+		PERIODIC, POLLING_SERVER, DEFERRABLE_SERVER, SPORADIC_SERVER
+	}
+
+	private final TaskKind[] kinds;
+	private final int[] priorities;
+	private final long[] periods;
+	private final long[] costs;
+	private final long[] jitters;
+	private final long[] responseTimes;
+	// scratch for canAdmit() so that committed results are left untouched
+	private final long[] candidateResponseTimes;
+	// task indices, highest priority first
+	private final int[] order;
+	private int taskCount;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) maxTasks > 0
+	 * 
+	 * @param maxTasks
+	 */
+	public ResponseTimeAnalysis(int maxTasks) {
+		assert maxTasks > 0 : "maxTasks must be positive";
+		// one extra slot for the candidate of canAdmit()
+		kinds = new TaskKind[maxTasks + 1];
+		priorities = new int[maxTasks + 1];
+		periods = new long[maxTasks + 1];
+		costs = new long[maxTasks + 1];
+		jitters = new long[maxTasks + 1];
+		responseTimes = new long[maxTasks + 1];
+		candidateResponseTimes = new long[maxTasks + 1];
+		order = new int[maxTasks + 1];
+	}
+
+	/**
+	 * @param task
+	 * @return the index of the task for responseTime()
+	 */
+	public int addPeriodicTask(PeriodicTask task) {
+		return addTask(TaskKind.PERIODIC, task.priority(), task.periodNanos(), task.costNanos());
+	}
+
+	/**
+	 * @param kind
+	 * @param priority
+	 * @param period   server period/replenishment period for servers
+	 * @param cost     server budget for servers
+	 * @return the index of the task for responseTime()
+	 */
+	public int addTask(TaskKind kind, int priority, RelativeTime period, RelativeTime cost) {
+		return addTask(kind, priority, TimeUtils.toNanos(period), TimeUtils.toNanos(cost));
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) size() < maxTasks
+	 * 
+	 * 2) 0 < costNanos <= periodNanos
+	 * 
+	 * @param kind
+	 * @param priority
+	 * @param periodNanos
+	 * @param costNanos
+	 * @return the index of the task for responseTime()
+	 */
+	public int addTask(TaskKind kind, int priority, long periodNanos, long costNanos) {
+		assert taskCount < kinds.length - 1 : "no more than " + (kinds.length - 1) + " tasks can be added";
+		int task = insert(kind, priority, periodNanos, costNanos);
+		responseTimes[task] = -1;
+		return task;
+	}
+
+	public int size() {
+		return taskCount;
+	}
+
+	/**
+	 * Computes the worst-case response time of every task.
+	 * 
+	 * @return true if every task meets its deadline
+	 */
+	public boolean analyse() {
+		return analyseFrom(0, responseTimes);
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) analyse() has been called since the task was added
+	 * 
+	 * @param task
+	 * @return the worst-case response time in nanoseconds or a value greater
+	 *         than the task's period if it is not schedulable
+	 */
+	public long responseTime(int task) {
+		assert task >= 0 && task < taskCount : "unknown task [" + task + "]";
+		return responseTimes[task];
+	}
+
+	/**
+	 * The worst-case response time of the task were it to suffer "extraNanos" of
+	 * interference on top of that of the task-set (e.g. from a slack stealer
+	 * above every task), i.e. the least fixed point of
+	 * 
+	 * R = C + extraNanos + sum over higher or equal priority tasks (j) of
+	 * ceil((R + Jj) / Tj) * Cj
+	 * 
+	 * Does not allocate.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) extraNanos >= 0
+	 * 
+	 * @param task
+	 * @param extraNanos
+	 * @return the response time in nanoseconds or a value greater than the
+	 *         task's period if it would not be schedulable
+	 */
+	public long responseTimeWithInterference(int task, long extraNanos) {
+		assert task >= 0 && task < taskCount : "unknown task [" + task + "]";
+		assert extraNanos >= 0 : "extraNanos must not be negative";
+		return responseTime(task, positionOf(task), costs[task] + extraNanos, extraNanos);
+	}
+
+	/**
+	 * Analyses the task-set and rejects it if any task can miss its deadline.
+	 * 
+	 * @throws IllegalStateException naming the first task that is not schedulable
+	 */
+	public void checkSchedulable() {
+		if (analyse()) {
+			return;
+		}
+		for (int i = 0; i < taskCount; i++) {
+			int task = order[i];
+			if (responseTimes[task] > periods[task]) {
+				throw new IllegalStateException("Task-set not schedulable: " + kinds[task] + " with priority "
+						+ priorities[task] + ", period " + periods[task] + "ns and cost " + costs[task]
+						+ "ns has a worst-case response time greater than its period");
+			}
+		}
+	}
+
+	/**
+	 * Would the task-set remain schedulable if the given task was added?
+	 * 
+	 * Does not add the task and leaves the results of the last analyse() intact.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) analyse() has been called since the last task was added
+	 * 
+	 * @param kind
+	 * @param priority
+	 * @param periodNanos
+	 * @param costNanos
+	 * @return
+	 */
+	public boolean canAdmit(TaskKind kind, int priority, long periodNanos, long costNanos) {
+		int candidate = insert(kind, priority, periodNanos, costNanos);
+		int position = positionOf(candidate);
+		int firstAffected = position;
+		while (firstAffected > 0 && priorities[order[firstAffected - 1]] == priority) {
+			// ties are interfered with by the candidate too
+			firstAffected--;
+		}
+		boolean schedulable = analyseFrom(firstAffected, candidateResponseTimes);
+		// remove the candidate again (it is always the last index)
+		for (int i = position; i < taskCount - 1; i++) {
+			order[i] = order[i + 1];
+		}
+		taskCount--;
+		return schedulable;
+	}
+
+	/**
+	 * Would the task-set remain schedulable if the given task's parameters were
+	 * changed (e.g. a server's mode change)?
+	 * 
+	 * Does not change the task and leaves the results of the last analyse()
+	 * intact.
+	 * 
+	 * @param task
+	 * @param priority
+	 * @param periodNanos
+	 * @param costNanos
+	 * @return
+	 */
+	public boolean canChange(int task, int priority, long periodNanos, long costNanos) {
+		assert task >= 0 && task < taskCount : "unknown task [" + task + "]";
+		int oldPriority = priorities[task];
+		long oldPeriod = periods[task];
+		long oldCost = costs[task];
+		reposition(task, priority, periodNanos, costNanos);
+		// a change can affect tasks above the task's old position too
+		boolean schedulable = analyseFrom(0, candidateResponseTimes);
+		reposition(task, oldPriority, oldPeriod, oldCost);
+		return schedulable;
+	}
+
+	/**
+	 * Changes the given task's parameters. analyse() must be called again before
+	 * its results are used.
+	 * 
+	 * @param task
+	 * @param priority
+	 * @param periodNanos
+	 * @param costNanos
+	 */
+	public void changeTask(int task, int priority, long periodNanos, long costNanos) {
+		assert task >= 0 && task < taskCount : "unknown task [" + task + "]";
+		reposition(task, priority, periodNanos, costNanos);
+		responseTimes[task] = -1;
+	}
+
+	// Sets the task's parameters and moves it to its new place in "order", last
+	// among equal priorities
+	private void reposition(int task, int priority, long periodNanos, long costNanos) {
+		assert costNanos > 0 && costNanos <= periodNanos : "cost [" + costNanos + "] not within (0," + periodNanos
+				+ "]";
+		for (int i = positionOf(task); i < taskCount - 1; i++) {
+			order[i] = order[i + 1];
+		}
+		priorities[task] = priority;
+		periods[task] = periodNanos;
+		costs[task] = costNanos;
+		jitters[task] = (kinds[task] == TaskKind.DEFERRABLE_SERVER) ? periodNanos - costNanos : 0;
+		int position = taskCount - 1;
+		while (position > 0 && priorities[order[position - 1]] < priority) {
+			order[position] = order[position - 1];
+			position--;
+		}
+		order[position] = task;
+	}
+
+	// Adds the task keeping "order" sorted, highest priority first. Among equal
+	// priorities the newest task goes last.
+	private int insert(TaskKind kind, int priority, long periodNanos, long costNanos) {
+		assert costNanos > 0 && costNanos <= periodNanos : "cost [" + costNanos + "] not within (0," + periodNanos
+				+ "]";
+		int task = taskCount;
+		kinds[task] = kind;
+		priorities[task] = priority;
+		periods[task] = periodNanos;
+		costs[task] = costNanos;
+		jitters[task] = (kind == TaskKind.DEFERRABLE_SERVER) ? periodNanos - costNanos : 0;
+		int position = taskCount;
+		while (position > 0 && priorities[order[position - 1]] < priority) {
+			order[position] = order[position - 1];
+			position--;
+		}
+		order[position] = task;
+		taskCount++;
+		return task;
+	}
+
+	private int positionOf(int task) {
+		for (int i = 0; i < taskCount; i++) {
+			if (order[i] == task) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("task [" + task + "] not found");
+	}
+
+	private boolean analyseFrom(int position, long[] results) {
+		boolean schedulable = true;
+		for (int i = position; i < taskCount; i++) {
+			int task = order[i];
+			long seed = costs[task];
+			if (i > 0) {
+				int above = order[i - 1];
+				long aboveResponse = (i == position) ? responseTimes[above] : results[above];
+				if (priorities[above] > priorities[task] && aboveResponse > 0) {
+					seed = aboveResponse + costs[task];
+				}
+			}
+			results[task] = responseTime(task, i, seed, 0);
+			schedulable &= results[task] <= periods[task];
+		}
+		return schedulable;
+	}
+
+	// Iterates until the fixed point or until the deadline is exceeded. Tasks are
+	// interfered with by all tasks ahead of them in "order" and any task of equal
+	// priority behind them.
+	private long responseTime(int task, int position, long seed, long extra) {
+		long response = seed;
+		long previous = -1;
+		while (response != previous && response <= periods[task]) {
+			previous = response;
+			response = costs[task] + extra;
+			for (int i = 0; i < taskCount; i++) {
+				int other = order[i];
+				if (i == position) {
+					continue;
+				}
+				if (i > position && priorities[other] < priorities[task]) {
+					break;
+				}
+				response += ((previous + jitters[other] + periods[other] - 1) / periods[other]) * costs[other];
+			}
+		}
+		return response;
+	}
+}
@@ -0,0 +1,169 @@
+package rtsj.sandbox.aperiodic_service.analysis;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.realtime.RelativeTime;
+
+import rtsj.sandbox.common.TimeUtils;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Lets an aperiodic server's budget, period and priority be changed whilst it
+ * runs (e.g. to follow a load that varies by time of day) without restarting
+ * it.
+ * 
+ * A mode change is requested from any thread with request() and, if accepted,
+ * is held pending until the server reaches a safe point - the boundary of its
+ * period, i.e. its replenishment - where it applies the whole mode in one step
+ * through applyPending(). The server therefore never runs a period with, say,
+ * the new budget but the old period. A later request replaces one still
+ * pending.
+ * 
+ * Requests are serialised with each other, but not with the server: an
+ * accepted mode is published as an immutable object which applyPending() takes
+ * with a single atomic swap, so the server never blocks on a requester (which
+ * may be running the analysis at a lower priority).
+ * 
+ * If guarded by a ResponseTimeAnalysis (see guardWith()) a request is only
+ * accepted if the task-set remains schedulable with the new mode, and the
+ * analysis is updated to the new mode on acceptance, so that it stays the
+ * model of what is (about to be) running.
+ * 
+ * Objects which depend on the server's mode (e.g. DeadlineAdmissionControl)
+ * can follow it (see alsoApplyTo()), so that they change at the same safe
+ * point.
+ * 
+ * NOTE: During the period in which the change is applied, the old and new
+ * modes overlap as far as the tasks below the server are concerned. The check
+ * does not cover this transient; changes which increase the server's
+ * utilisation should be made when the load allows for it.
+ * 
+ * Thread-safe
+ * 
+ */
+public class ServerModeChange {
+
+	/**
+	 * Applies a mode to a server, called at the server's safe point.
+	 */
+	@FunctionalInterface
+	public interface Target {
+		void apply(long budgetNanos, long periodNanos, int priority);
+	}
+
+	private static final class Mode {
+		final long budgetNanos;
+		final long periodNanos;
+		final int priority;
+
+		Mode(long budgetNanos, long periodNanos, int priority) {
+			this.budgetNanos = budgetNanos;
+			this.periodNanos = periodNanos;
+			this.priority = priority;
+		}
+	}
+
+	// serialises requests, and with them the analysis
+	private final Object requestLock = new Object();
+	private ResponseTimeAnalysis analysis;
+	private int analysisTask;
+	private volatile Target follower;
+
+	private final AtomicReference<Mode> pending = new AtomicReference<>();
+
+	/**
+	 * Rejects requests which would make the analysed task-set unschedulable. The
+	 * analysis is then owned by this object and must not be used elsewhere.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) analysis.analyse() has been called since the last task was added
+	 * 
+	 * @param analysis
+	 * @param serverTask index of the server in the analysis (as returned by
+	 *                   addTask())
+	 */
+	public void guardWith(ResponseTimeAnalysis analysis, int serverTask) {
+		synchronized (requestLock) {
+			this.analysis = analysis;
+			this.analysisTask = serverTask;
+		}
+	}
+
+	/**
+	 * Applies each mode to the follower too, right after the server.
+	 * 
+	 * @param follower
+	 */
+	public void alsoApplyTo(Target follower) {
+		this.follower = follower;
+	}
+
+	/**
+	 * Allocates the published mode, so must not be called from a memory area the
+	 * server cannot reference (e.g. a scope the server is not in).
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) 0 < budget <= period
+	 * 
+	 * @param budget
+	 * @param period
+	 * @param priority
+	 * @return false if the mode would make the task-set unschedulable
+	 */
+	public boolean request(RelativeTime budget, RelativeTime period, int priority) {
+		long budgetNanos = TimeUtils.toNanos(budget);
+		long periodNanos = TimeUtils.toNanos(period);
+		assert budgetNanos > 0 && budgetNanos <= periodNanos : "budget must be positive and not more than period";
+		synchronized (requestLock) {
+			if (analysis != null) {
+				if (!analysis.canChange(analysisTask, priority, periodNanos, budgetNanos)) {
+					return false;
+				}
+				analysis.changeTask(analysisTask, priority, periodNanos, budgetNanos);
+				// keep the analysis ready for the next request
+				analysis.analyse();
+			}
+			pending.set(new Mode(budgetNanos, periodNanos, priority));
+		}
+		return true;
+	}
+
+	public boolean isPending() {
+		return pending.get() != null;
+	}
+
+	/**
+	 * Called by the server at its safe point. Does not block or allocate.
+	 * 
+	 * @param target
+	 * @return true if a mode was applied
+	 */
+	public boolean applyPending(Target target) {
+		Mode mode = pending.getAndSet(null);
+		if (mode == null) {
+			return false;
+		}
+		target.apply(mode.budgetNanos, mode.periodNanos, mode.priority);
+		Target follower = this.follower;
+		if (follower != null) {
+			follower.apply(mode.budgetNanos, mode.periodNanos, mode.priority);
+		}
+		return true;
+	}
+}
@@ -0,0 +1,56 @@
+package rtsj.sandbox.aperiodic_service.common;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Outcome of an admission request (see AperiodicEventAdmissionControl).
+ * 
+ */
+public enum AdmissionDecision {
+
+	ACCEPTED,
+
+	/**
+	 * The event's absolute deadline has already passed.
+	 */
+	DEADLINE_MISSED,
+
+	/**
+	 * The event, together with the work already queued ahead of it, cannot be
+	 * completed by the server before its absolute deadline.
+	 */
+	DEADLINE_UNREACHABLE,
+
+	/**
+	 * The event is not restartable and its cost exceeds a full server budget, so it
+	 * would always be interrupted (and lost) before completing.
+	 */
+	EXCEEDS_BUDGET,
+
+	/**
+	 * Admitting the event would take the queued work over its configured limit.
+	 */
+	BACKLOG_FULL,
+
+	/**
+	 * A bounded queue has no room left for the event.
+	 */
+	QUEUE_FULL;
+
+	public boolean isAccepted() {
+		return this == ACCEPTED;
+	}
+}
@@ -17,7 +17,12 @@ package rtsj.sandbox.aperiodic_service.common;
  * 
  * 
  * Strategy for event admission. Can be cost based if events are not restartable
- * or deadline based if they are.
+ * or deadline based if they are (see CostAdmissionControl and
+ * DeadlineAdmissionControl).
+ * 
+ * Implementations are called by the queue whilst holding its submission lock,
+ * so they need not be thread-safe themselves as long as each instance is only
+ * given to one queue.
  * 
  * @param <T>
  * 
@@ -26,5 +31,10 @@ package rtsj.sandbox.aperiodic_service.common;
 @FunctionalInterface
 public interface AperiodicEventAdmissionControl<T extends InterruptibleAperiodicEvent> {
 
-	boolean canAccept(T event);
+	/**
+	 * @param event
+	 * @param queuedCostNanos remaining cost of all events already queued
+	 * @return ACCEPTED or the reason for rejecting the event
+	 */
+	AdmissionDecision decide(T event, long queuedCostNanos);
 }
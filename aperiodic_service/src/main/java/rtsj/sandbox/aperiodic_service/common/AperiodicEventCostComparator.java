@@ -23,14 +23,16 @@ import java.util.Comparator;
  * (This is only one option. Other comparators can be based off arrival-time or
  * deadline)
  * 
+ * Does not allocate.
+ * 
  * Thread-safe
  * 
  */
 public class AperiodicEventCostComparator<T extends InterruptibleAperiodicEvent> implements Comparator<T> {
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public int compare(InterruptibleAperiodicEvent ae1, InterruptibleAperiodicEvent ae2) {
-		return ae1.cost().compareTo(ae2.cost());
+		// primitive accessors so that heap sifts do not allocate
+		return Long.compare(ae1.costNanos(), ae2.costNanos());
 	}
 }
@@ -0,0 +1,152 @@
+package rtsj.sandbox.aperiodic_service.common;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.realtime.AbsoluteTime;
+import javax.realtime.RelativeTime;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * A fixed set of RestartableAperiodicEvents, preallocated in the memory area
+ * the pool is created in, so that generating events under a sustained arrival
+ * rate does not allocate.
+ * 
+ * An event is taken with acquire(), which reinitialises it in place (see
+ * InterruptibleAperiodicEvent.reinitialise()), and goes back to the pool when
+ * the server processing it calls retire() - or the submitter does, if the
+ * event was rejected.
+ * 
+ * Each event has a slot whose state is FREE or IN_USE. acquire() claims a FREE
+ * slot with a CAS, starting from a rotating position so that consecutive
+ * acquisitions do not contend on the same slots; release() frees it. Both are
+ * lock-free and safe to call from any number of threads.
+ * 
+ * NOTE: The name of a pooled event identifies its slot, not the event - use
+ * id() to tell events apart.
+ * 
+ */
+public class AperiodicEventPool {
+
+	private static final int FREE = 0;
+	private static final int IN_USE = 1;
+
+	private final RestartableAperiodicEvent[] events;
+	private final AtomicIntegerArray states;
+	private final AtomicInteger nextSlot;
+	private final AtomicLong exhausted;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) capacity > 0
+	 * 
+	 * @param capacity
+	 */
+	public AperiodicEventPool(int capacity) {
+		assert capacity > 0 : "capacity must be positive";
+		events = new RestartableAperiodicEvent[capacity];
+		states = new AtomicIntegerArray(capacity);
+		RelativeTime zero = new RelativeTime();
+		for (int i = 0; i < capacity; i++) {
+			events[i] = new RestartableAperiodicEvent(zero, zero, "PooledEvent#" + i, this, i);
+		}
+		nextSlot = new AtomicInteger();
+		exhausted = new AtomicLong();
+	}
+
+	/**
+	 * A free event reinitialised with the given properties and created now.
+	 * 
+	 * @param cost
+	 * @param deadline
+	 * @return null if every event is in use
+	 */
+	public RestartableAperiodicEvent acquire(RelativeTime cost, RelativeTime deadline) {
+		RestartableAperiodicEvent event = claim();
+		if (event != null) {
+			event.reinitialise(cost, deadline);
+		}
+		return event;
+	}
+
+	/**
+	 * As acquire(cost, deadline) but with the given creation time.
+	 * 
+	 * @param cost
+	 * @param deadline
+	 * @param creationTime
+	 * @return null if every event is in use
+	 */
+	public RestartableAperiodicEvent acquire(RelativeTime cost, RelativeTime deadline, AbsoluteTime creationTime) {
+		RestartableAperiodicEvent event = claim();
+		if (event != null) {
+			event.reinitialise(cost, deadline, creationTime);
+		}
+		return event;
+	}
+
+	private RestartableAperiodicEvent claim() {
+		int capacity = events.length;
+		// masked, as the counter eventually wraps around
+		int start = (nextSlot.getAndIncrement() & Integer.MAX_VALUE) % capacity;
+		for (int i = 0; i < capacity; i++) {
+			int slot = (start + i) % capacity;
+			if (states.get(slot) == FREE && states.compareAndSet(slot, FREE, IN_USE)) {
+				return events[slot];
+			}
+		}
+		exhausted.incrementAndGet();
+		return null;
+	}
+
+	// called through RestartableAperiodicEvent.retire()
+	void release(RestartableAperiodicEvent event) {
+		boolean released = states.compareAndSet(event.poolSlot(), IN_USE, FREE);
+		assert released : "event " + event.poolSlot() + " retired more than once";
+	}
+
+	/**
+	 * Number of events not currently in use. Approximate if events are being
+	 * acquired or retired concurrently.
+	 * 
+	 * @return
+	 */
+	public int available() {
+		int available = 0;
+		for (int i = 0; i < events.length; i++) {
+			if (states.get(i) == FREE) {
+				available++;
+			}
+		}
+		return available;
+	}
+
+	public int capacity() {
+		return events.length;
+	}
+
+	/**
+	 * How many times acquire() found no free event.
+	 * 
+	 * @return
+	 */
+	public long exhaustedCount() {
+		return exhausted.get();
+	}
+}
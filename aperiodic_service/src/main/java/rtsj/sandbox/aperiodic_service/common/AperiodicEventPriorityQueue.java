@@ -3,6 +3,7 @@ package rtsj.sandbox.aperiodic_service.common;
 import java.util.Comparator;
 import java.util.Queue;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
@@ -21,12 +22,18 @@ import java.util.concurrent.PriorityBlockingQueue;
  * 
  * 
  * Provides access to aperiodic events returned in an order defined by the given
- * comparator or the elements' natural ordering. Initial capacity may be set but
- * the total capacity is unbounded.
+ * comparator (e.g. an EventOrdering) or the elements' natural ordering.
+ * Initial capacity may be set but the total capacity is unbounded.
  * 
  * NOTE: If instantiated with no Comparator, pushed elements must implement
  * Comparable.
  * 
+ * Keeps a running total of the remaining cost of queued events, which is handed
+ * to the admission control (if any) so that it can account for the work
+ * already waiting for service. Submissions are serialised so that the total
+ * each decision is based on cannot change until the event is queued; pop() is
+ * not affected.
+ * 
  * Thread-safe
  *
  */
@@ -36,6 +43,8 @@ public class AperiodicEventPriorityQueue<E extends InterruptibleAperiodicEvent>
 
 	private final Queue<E> q;
 
+	private final AtomicLong queuedCost;
+
 	private AperiodicEventAdmissionControl<E> admissionControl;
 
 	public AperiodicEventPriorityQueue() {
@@ -52,6 +61,7 @@ public class AperiodicEventPriorityQueue<E extends InterruptibleAperiodicEvent>
 	public AperiodicEventPriorityQueue(int initialSize) {
 		assert initialSize >= 0 : "initialSize" + initialSize + " must not be negative";
 		q = new PriorityBlockingQueue<>(initialSize);
+		queuedCost = new AtomicLong();
 		admissionControl = null;
 	}
 
@@ -62,7 +72,7 @@ public class AperiodicEventPriorityQueue<E extends InterruptibleAperiodicEvent>
 	 * 
 	 * @param comparator
 	 */
-	public AperiodicEventPriorityQueue(Comparator<E> comparator) {
+	public AperiodicEventPriorityQueue(Comparator<? super E> comparator) {
 		this(DEFAULT_QUEUE_SIZE, comparator);
 	}
 
@@ -76,13 +86,31 @@ public class AperiodicEventPriorityQueue<E extends InterruptibleAperiodicEvent>
 	 * @param initialSize
 	 * @param comparator
 	 */
-	public AperiodicEventPriorityQueue(int initialSize, Comparator<E> comparator) {
+	public AperiodicEventPriorityQueue(int initialSize, Comparator<? super E> comparator) {
 		assert initialSize >= 0 : "initialSize" + initialSize + " must not be negative";
 		assert comparator != null : "comparator must not be null";
 		q = new PriorityBlockingQueue<>(initialSize, comparator);
+		queuedCost = new AtomicLong();
 		this.admissionControl = null;
 	}
 
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) initialSize >= 0
+	 * 
+	 * 2) aperiodicEventAdmissionControl != null
+	 * 
+	 * @param initialSize
+	 * @param aperiodicEventAdmissionControl
+	 */
+	public AperiodicEventPriorityQueue(int initialSize,
+			AperiodicEventAdmissionControl<E> aperiodicEventAdmissionControl) {
+		this(initialSize);
+		assert aperiodicEventAdmissionControl != null : "aperiodicEventAdmissionControl must not be null";
+		this.admissionControl = aperiodicEventAdmissionControl;
+	}
+
 	/**
 	 * REQUIRES:
 	 * 
@@ -97,7 +125,7 @@ public class AperiodicEventPriorityQueue<E extends InterruptibleAperiodicEvent>
 	 * @param aperiodicEventAdmissionControl
 	 */
 
-	public AperiodicEventPriorityQueue(int initialSize, Comparator<E> comparator,
+	public AperiodicEventPriorityQueue(int initialSize, Comparator<? super E> comparator,
 			AperiodicEventAdmissionControl<E> aperiodicEventAdmissionControl) {
 		this(initialSize, comparator);
 		assert aperiodicEventAdmissionControl != null : "aperiodicEventAdmissionControl must not be null";
@@ -105,19 +133,79 @@ public class AperiodicEventPriorityQueue<E extends InterruptibleAperiodicEvent>
 	}
 
 	@Override
-	public void push(E event) {
+	public boolean push(E event) {
+		return submit(event).isAccepted();
+	}
+
+	/**
+	 * As push() but reports why an event was rejected.
+	 * 
+	 * @param event
+	 * @return
+	 */
+	public synchronized AdmissionDecision submit(E event) {
 		if (admissionControl != null) {
-			if (admissionControl.canAccept(event)) {
-				q.offer(event);
+			AdmissionDecision decision = admissionControl.decide(event, queuedCost.get());
+			if (!decision.isAccepted()) {
+				return decision;
 			}
-		} else {
-			q.offer(event);
 		}
+		// add cost first so that a concurrent pop() never takes the total negative
+		event.accountedCostNanos = event.remainingCostNanos();
+		queuedCost.addAndGet(event.accountedCostNanos);
+		q.offer(event);
+		return AdmissionDecision.ACCEPTED;
 	}
 
 	@Override
 	public E pop() {
-		return q.poll();
+		E event = q.poll();
+		if (event != null) {
+			queuedCost.addAndGet(-event.accountedCostNanos);
+		}
+		return event;
+	}
+
+	/**
+	 * NOTE: Iterating over the queue takes a snapshot of it, so unlike pop() this
+	 * allocates (in proportion to the queue's size) and must not be used from a
+	 * memory area too small for that.
+	 */
+	@Override
+	public synchronized E steal() {
+		E stealable = findStealable();
+		// remove() fails if a concurrent pop() took the event
+		if (stealable != null && q.remove(stealable)) {
+			queuedCost.addAndGet(-stealable.accountedCostNanos);
+			return stealable;
+		}
+		return null;
+	}
+
+	@Override
+	public long stealableDeadlineNanos() {
+		E stealable = findStealable();
+		return (stealable == null) ? Long.MAX_VALUE : stealable.absoluteDeadlineNanos();
+	}
+
+	private E findStealable() {
+		E earliest = null;
+		for (E event : q) {
+			if (event.isTypeRestartable() && event.canRestart()
+					&& (earliest == null || event.absoluteDeadlineNanos() < earliest.absoluteDeadlineNanos())) {
+				earliest = event;
+			}
+		}
+		return earliest;
+	}
+
+	/**
+	 * Total remaining cost of the events currently queued.
+	 * 
+	 * @return
+	 */
+	public long queuedCostNanos() {
+		return queuedCost.get();
 	}
 
 	@Override
@@ -0,0 +1,258 @@
+package rtsj.sandbox.aperiodic_service.common;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * A fixed-capacity, lock-free queue returning events earliest absolute
+ * deadline first (EDF), or in another EventOrdering if one is given. As with
+ * EventOrdering, ties are broken by id(), i.e. in order of creation.
+ * 
+ * All storage is allocated in the constructor (i.e. in the memory area the
+ * queue is created in) so push() and pop() never allocate and never take a
+ * lock. Each slot goes through the states FREE -> CLAIMED -> FULL -> TAKING ->
+ * FREE with every transition out of FREE and FULL being a single
+ * compare-and-set:
+ * 
+ * - push() claims the first FREE slot, stores the event, its ordering key, its
+ * deadline and its id and then publishes the slot as FULL. It is wait-free,
+ * bounded by capacity slot inspections, and returns false (counted in
+ * rejectedCount()) when no slot is free.
+ * 
+ * - pop() scans the FULL slots for the smallest key (then id) and takes it
+ * with a compare-and-set. It is lock-free: the scan is only repeated if
+ * another consumer took the chosen slot first, which cannot happen when (as
+ * with both servers) there is a single consumer.
+ * 
+ * The trade-off against AperiodicEventPriorityQueue is an O(capacity) pop()
+ * instead of an O(log n) heap sift, which for the small capacities used by the
+ * servers is cheaper than acquiring the heap's lock and, more importantly, is
+ * bounded.
+ * 
+ * NOTE: An event popped concurrently with a push() of an earlier deadline event
+ * may be returned ahead of it. This is no different to the push() having
+ * happened just after the pop().
+ * 
+ * Thread-safe
+ * 
+ */
+public class BoundedDeadlineEventQueue<E extends InterruptibleAperiodicEvent> implements EventQueue<E> {
+
+	private static final int FREE = 0;
+	private static final int CLAIMED = 1;
+	private static final int FULL = 2;
+	private static final int TAKING = 3;
+
+	private final int capacity;
+	private final AtomicIntegerArray states;
+	// slot contents are only read after a volatile read of the slot's state has
+	// seen FULL, hence no further synchronisation is needed for them
+	private final E[] events;
+	private final long[] keys;
+	// steal() is EDF whatever the ordering (see EventQueue.steal())
+	private final long[] deadlines;
+	// breaks ties between equal keys
+	private final long[] ids;
+	private final EventOrdering ordering;
+	private final AtomicInteger size;
+	private final AtomicLong queuedCost;
+	private final AtomicLong rejected;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) capacity > 0
+	 * 
+	 * @param capacity
+	 */
+	public BoundedDeadlineEventQueue(int capacity) {
+		this(capacity, EventOrdering.EDF);
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) capacity > 0
+	 * 
+	 * 2) ordering != null
+	 * 
+	 * @param capacity
+	 * @param ordering
+	 */
+	@SuppressWarnings("unchecked")
+	public BoundedDeadlineEventQueue(int capacity, EventOrdering ordering) {
+		assert capacity > 0 : "capacity [" + capacity + "] must be positive";
+		assert ordering != null : "ordering must not be null";
+		this.capacity = capacity;
+		this.ordering = ordering;
+		states = new AtomicIntegerArray(capacity);
+		events = (E[]) new InterruptibleAperiodicEvent[capacity];
+		keys = new long[capacity];
+		deadlines = new long[capacity];
+		ids = new long[capacity];
+		size = new AtomicInteger();
+		queuedCost = new AtomicLong();
+		rejected = new AtomicLong();
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) event != null
+	 * 
+	 * @return false if the queue is full
+	 */
+	@Override
+	public boolean push(E event) {
+		assert event != null : "event must not be null";
+		for (int i = 0; i < capacity; i++) {
+			if (states.get(i) == FREE && states.compareAndSet(i, FREE, CLAIMED)) {
+				events[i] = event;
+				keys[i] = ordering.key(event);
+				deadlines[i] = event.absoluteDeadlineNanos();
+				ids[i] = event.id();
+				// count the cost before publishing the slot so that pop() never takes the
+				// total negative
+				event.accountedCostNanos = event.remainingCostNanos();
+				queuedCost.addAndGet(event.accountedCostNanos);
+				states.set(i, FULL);
+				size.incrementAndGet();
+				return true;
+			}
+		}
+		rejected.incrementAndGet();
+		return false;
+	}
+
+	/**
+	 * As push() but reports the rejection reason, for callers which handle events
+	 * from several queues uniformly (see AperiodicEventPriorityQueue).
+	 * 
+	 * @param event
+	 * @return ACCEPTED or QUEUE_FULL
+	 */
+	public AdmissionDecision submit(E event) {
+		return push(event) ? AdmissionDecision.ACCEPTED : AdmissionDecision.QUEUE_FULL;
+	}
+
+	@Override
+	public E pop() {
+		return take(false);
+	}
+
+	/**
+	 * Does not allocate.
+	 */
+	@Override
+	public E steal() {
+		return take(true);
+	}
+
+	@Override
+	public long stealableDeadlineNanos() {
+		long earliestDeadline = Long.MAX_VALUE;
+		for (int i = 0; i < capacity; i++) {
+			if (states.get(i) == FULL && deadlines[i] < earliestDeadline && isStealable(events[i])) {
+				earliestDeadline = deadlines[i];
+			}
+		}
+		return earliestDeadline;
+	}
+
+	private E take(boolean stealableOnly) {
+		long[] by = stealableOnly ? deadlines : keys;
+		while (true) {
+			int earliest = -1;
+			long earliestKey = Long.MAX_VALUE;
+			long earliestId = Long.MAX_VALUE;
+			for (int i = 0; i < capacity; i++) {
+				if (states.get(i) == FULL
+						&& (earliest < 0 || by[i] < earliestKey || (by[i] == earliestKey && ids[i] < earliestId))
+						&& (!stealableOnly || isStealable(events[i]))) {
+					earliest = i;
+					earliestKey = by[i];
+					earliestId = ids[i];
+				}
+			}
+			if (earliest < 0) {
+				return null;
+			}
+			if (states.compareAndSet(earliest, FULL, TAKING)) {
+				E event = events[earliest];
+				if (stealableOnly && !isStealable(event)) {
+					// slot was re-used by a non-stealable event since it was scanned - give it
+					// back and rescan
+					states.set(earliest, FULL);
+					continue;
+				}
+				events[earliest] = null;
+				states.set(earliest, FREE);
+				size.decrementAndGet();
+				queuedCost.addAndGet(-event.accountedCostNanos);
+				return event;
+			}
+			// lost the slot to another consumer, rescan
+		}
+	}
+
+	public EventOrdering ordering() {
+		return ordering;
+	}
+
+	// the slot's event may be replaced whilst being read, hence the null check
+	private static boolean isStealable(InterruptibleAperiodicEvent event) {
+		return event != null && event.isTypeRestartable() && event.canRestart();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size.get() == 0;
+	}
+
+	/**
+	 * How many events are currently held?
+	 * 
+	 * @return
+	 */
+	public int size() {
+		return size.get();
+	}
+
+	/**
+	 * Total remaining cost of the events currently held.
+	 * 
+	 * @return
+	 */
+	public long queuedCostNanos() {
+		return queuedCost.get();
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * How many push() calls have been rejected because the queue was full?
+	 * 
+	 * @return
+	 */
+	public long rejectedCount() {
+		return rejected.get();
+	}
+}
@@ -0,0 +1,68 @@
+package rtsj.sandbox.aperiodic_service.common;
+
+import javax.realtime.RelativeTime;
+
+import rtsj.sandbox.common.TimeUtils;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Admits events based on cost alone, for events without (meaningful) deadlines:
+ * 
+ * 1) a non-restartable event whose cost exceeds a full server budget is
+ * rejected, since it would always be interrupted before completing
+ * 
+ * 2) an event is rejected if it would take the queued work over "maxBacklog",
+ * bounding the time any admitted event waits for service
+ * 
+ * Does not allocate. Thread-safe.
+ * 
+ * @param <T>
+ * 
+ */
+public class CostAdmissionControl<T extends InterruptibleAperiodicEvent> implements AperiodicEventAdmissionControl<T> {
+
+	private final long budgetNanos;
+	private final long maxBacklogNanos;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) budget > 0
+	 * 
+	 * 2) maxBacklog > 0
+	 * 
+	 * @param budget     server budget per period
+	 * @param maxBacklog maximum total remaining cost of queued events
+	 */
+	public CostAdmissionControl(RelativeTime budget, RelativeTime maxBacklog) {
+		this.budgetNanos = TimeUtils.toNanos(budget);
+		this.maxBacklogNanos = TimeUtils.toNanos(maxBacklog);
+		assert budgetNanos > 0 : "budget must be positive";
+		assert maxBacklogNanos > 0 : "maxBacklog must be positive";
+	}
+
+	@Override
+	public AdmissionDecision decide(T event, long queuedCostNanos) {
+		if (!event.isTypeRestartable() && event.costNanos() > budgetNanos) {
+			return AdmissionDecision.EXCEEDS_BUDGET;
+		}
+		if (queuedCostNanos + event.remainingCostNanos() > maxBacklogNanos) {
+			return AdmissionDecision.BACKLOG_FULL;
+		}
+		return AdmissionDecision.ACCEPTED;
+	}
+}
@@ -0,0 +1,140 @@
+package rtsj.sandbox.aperiodic_service.common;
+
+import javax.realtime.AbsoluteTime;
+import javax.realtime.Clock;
+import javax.realtime.RelativeTime;
+
+import rtsj.sandbox.common.TimeUtils;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Admits an event only if it is guaranteed to complete before its absolute
+ * deadline, assuming the server serves queued work in the order it is queued
+ * and provides "budget" every "period".
+ * 
+ * A server whose budget is used up (or, for a polling server, which has just
+ * polled an empty queue) may not serve new work until its next period, after
+ * which every period delivers a full budget. The work ahead of the event -
+ * what is left of the event in service, which is no longer queued and is
+ * bounded by "maxEventCost", plus the queued work - and the event's own
+ * remaining cost (W) therefore complete no later than
+ * 
+ * now + (ceil(W / budget) + 1) * period
+ * 
+ * provided the server itself is schedulable (see ResponseTimeAnalysis). This
+ * holds for the polling, deferrable and sporadic servers alike and is
+ * pessimistic for all of them.
+ * 
+ * NOTE: The guarantee only holds if no event admitted later is served before
+ * the event, i.e. for a queue ordered by creation (EventOrdering.FIFO; an
+ * interrupted event is re-queued ahead of later ones) or for EDF when every
+ * event has the same relative deadline, which orders them alike. Under any
+ * other ordering (e.g. EDF with differing deadlines) later events can overtake
+ * an admitted one and add to the work ahead of it after its admission, so the
+ * check only rejects events which are already known to be too late.
+ * 
+ * The server's budget and period follow its mode changes (see
+ * changeServerMode()) from the safe point at which they are applied. Events
+ * admitted before a change are not checked again.
+ * 
+ * Does not allocate. Not thread-safe (see AperiodicEventAdmissionControl),
+ * except for changeServerMode().
+ * 
+ * @param <T>
+ * 
+ */
+public class DeadlineAdmissionControl<T extends InterruptibleAperiodicEvent>
+		implements AperiodicEventAdmissionControl<T> {
+
+	private final Clock clk;
+	private final long maxEventCostNanos;
+	private final AbsoluteTime now;
+
+	// the server's mode, written by the server (the single writer) and read by
+	// decide() under a sequence lock, so that a mode change never blocks the
+	// server and decide() never sees the budget of one mode with the period of
+	// another. Odd while a change is being written.
+	private volatile int modeSequence;
+	private volatile long budgetNanos;
+	private volatile long periodNanos;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) 0 < budget <= period
+	 * 
+	 * 2) maxEventCost >= 0
+	 * 
+	 * @param budget       server budget per period
+	 * @param period       server (replenishment) period
+	 * @param maxEventCost largest cost of any event served by the server, which
+	 *                     bounds the remaining cost of the event in service
+	 */
+	public DeadlineAdmissionControl(RelativeTime budget, RelativeTime period, RelativeTime maxEventCost) {
+		this.budgetNanos = TimeUtils.toNanos(budget);
+		this.periodNanos = TimeUtils.toNanos(period);
+		this.maxEventCostNanos = TimeUtils.toNanos(maxEventCost);
+		assert budgetNanos > 0 && budgetNanos <= periodNanos : "budget must be positive and not more than period";
+		assert maxEventCostNanos >= 0 : "maxEventCost must not be negative";
+		this.now = new AbsoluteTime();
+		this.clk = Clock.getRealtimeClock();
+	}
+
+	/**
+	 * Follows a mode change of the server, e.g. as a follower of its
+	 * ServerModeChange (see ServerModeChange.alsoApplyTo()). Does not block or
+	 * allocate.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) 0 < budgetNanos <= periodNanos
+	 * 
+	 * 2) only called by one thread (the server's)
+	 * 
+	 * @param budgetNanos
+	 * @param periodNanos
+	 */
+	public void changeServerMode(long budgetNanos, long periodNanos) {
+		assert budgetNanos > 0 && budgetNanos <= periodNanos : "budget must be positive and not more than period";
+		modeSequence++;
+		this.budgetNanos = budgetNanos;
+		this.periodNanos = periodNanos;
+		modeSequence++;
+	}
+
+	@Override
+	public AdmissionDecision decide(T event, long queuedCostNanos) {
+		long nowNanos = TimeUtils.toNanos(clk.getTime(now));
+		if (nowNanos >= event.absoluteDeadlineNanos()) {
+			return AdmissionDecision.DEADLINE_MISSED;
+		}
+		long budget;
+		long period;
+		int sequence;
+		do {
+			sequence = modeSequence;
+			budget = budgetNanos;
+			period = periodNanos;
+		} while ((sequence & 1) != 0 || sequence != modeSequence);
+		long work = maxEventCostNanos + queuedCostNanos + event.remainingCostNanos();
+		long periods = (work + budget - 1) / budget + 1;
+		if (nowNanos + periods * period > event.absoluteDeadlineNanos()) {
+			return AdmissionDecision.DEADLINE_UNREACHABLE;
+		}
+		return AdmissionDecision.ACCEPTED;
+	}
+}
@@ -0,0 +1,91 @@
+package rtsj.sandbox.aperiodic_service.common;
+
+import java.util.Comparator;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Orders in which an event queue may hand events to a server. Each ordering
+ * reduces an event to a primitive key, smallest first, so that comparisons do
+ * not allocate and queues can cache the key (see BoundedDeadlineEventQueue).
+ * Equal keys are ordered by event id, i.e. creation order.
+ * 
+ * Simulations of the servers with a range of relative deadlines (see
+ * rtsj.sandbox.simulation.App) show EDF missing the fewest deadlines under the
+ * loads the servers are dimensioned for, with least laxity close behind; SRPT
+ * only does better when deadlines are short for the backlog, at the cost of
+ * starving long events. With a single relative deadline EDF and FIFO serve
+ * events alike.
+ * 
+ */
+public enum EventOrdering implements Comparator<InterruptibleAperiodicEvent> {
+
+	/**
+	 * Earliest absolute deadline first.
+	 */
+	EDF {
+		@Override
+		public long key(InterruptibleAperiodicEvent event) {
+			return event.absoluteDeadlineNanos();
+		}
+	},
+
+	/**
+	 * Shortest remaining processing time first.
+	 */
+	SRPT {
+		@Override
+		public long key(InterruptibleAperiodicEvent event) {
+			return event.remainingCostNanos();
+		}
+	},
+
+	/**
+	 * Least laxity first. Laxity is (deadline - now - remaining cost) and "now"
+	 * is the same for every queued event, so (deadline - remaining cost) orders
+	 * them alike.
+	 */
+	LEAST_LAXITY {
+		@Override
+		public long key(InterruptibleAperiodicEvent event) {
+			return event.absoluteDeadlineNanos() - event.remainingCostNanos();
+		}
+	},
+
+	/**
+	 * Creation order.
+	 */
+	FIFO {
+		@Override
+		public long key(InterruptibleAperiodicEvent event) {
+			return event.creationTimeNanos();
+		}
+	};
+
+	/**
+	 * Does not allocate.
+	 * 
+	 * @param event
+	 * @return the event's position in this ordering, smallest first
+	 */
+	public abstract long key(InterruptibleAperiodicEvent event);
+
+	@Override
+	public int compare(InterruptibleAperiodicEvent e1, InterruptibleAperiodicEvent e2) {
+		int c = Long.compare(key(e1), key(e2));
+		return (c != 0) ? c : Long.compare(e1.id(), e2.id());
+	}
+}
@@ -0,0 +1,75 @@
+package rtsj.sandbox.aperiodic_service.common;
+
+public interface EventQueue<E> {
+
+	/**
+	 * Add new event to queue.
+	 * 
+	 * Does not block.
+	 * 
+	 * @param event
+	 * @return true if the event was added, false if it was rejected (e.g. by an
+	 *         admission control or because a bounded queue is full)
+	 */
+	boolean push(E event);
+
+	/**
+	 * Add events[offset] to events[offset + length - 1] to the queue, in order.
+	 * 
+	 * Does not block or allocate. Stops at the first event rejected by the queue,
+	 * so events[offset + added] onwards were not queued and remain the caller's.
+	 * 
+	 * @param events
+	 * @param offset
+	 * @param length
+	 * @return how many of the events were added
+	 */
+	default int pushAll(E[] events, int offset, int length) {
+		int added = 0;
+		while (added < length && push(events[offset + added])) {
+			added++;
+		}
+		return added;
+	}
+
+	/**
+	 * Remove and return first event in queue.
+	 * 
+	 * Returns null if empty. Does not block.
+	 * 
+	 * @return
+	 */
+	E pop();
+
+	/**
+	 * Remove and return the earliest-deadline event that may be processed by
+	 * another server, i.e. one that is restartable. Queued events have been reset
+	 * (see InterruptibleAperiodicEvent.reset()) so stealing one is equivalent to
+	 * it being interrupted and re-queued elsewhere.
+	 * 
+	 * Returns null if there is no such event or if the queue does not support
+	 * stealing. Does not block.
+	 * 
+	 * @return
+	 */
+	default E steal() {
+		return null;
+	}
+
+	/**
+	 * Absolute deadline (in nanoseconds) of the event steal() would return, so
+	 * that a thief can pick the most urgent of several queues.
+	 * 
+	 * @return Long.MAX_VALUE if there is nothing to steal
+	 */
+	default long stealableDeadlineNanos() {
+		return Long.MAX_VALUE;
+	}
+
+	/**
+	 * Are there no events in the queue?
+	 * 
+	 * @return
+	 */
+	boolean isEmpty();
+}
@@ -0,0 +1,211 @@
+package rtsj.sandbox.aperiodic_service.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.realtime.AsyncEvent;
+
+import rtsj.sandbox.common.EventLog;
+import rtsj.sandbox.common.LogCode;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Decides whether an event can still meet its deadline and, if it cannot,
+ * takes it out of service before it consumes any server budget. Used by a
+ * server both before dispatching an event and before re-queueing an
+ * interrupted one, so that under a burst doomed events do not starve feasible
+ * ones.
+ * 
+ * An event is feasible if it could complete by its deadline were it to run
+ * uninterrupted from now, i.e. (now + remaining cost <= absolute deadline).
+ * Infeasible events are handled according to the Policy:
+ * 
+ * - DROP: the event is retired.
+ * 
+ * - DEMOTE: the event is moved to a background queue, which a server only
+ * serves at its background priority once its budget is used up, never on its
+ * budget - so only a server with a background priority (the deferrable server)
+ * can use this policy. Demoted events are marked (see
+ * InterruptibleAperiodicEvent.isDemoted()) and run on a best-effort basis: they
+ * are not checked again, and if interrupted they go back to the background
+ * queue (see requeueDemoted()) without being shed or counted again.
+ * 
+ * - NOTIFY: the event is handed to the application through a queue and an
+ * AsyncEvent is fired. The application's handler must pop (and eventually
+ * retire()) the events.
+ * 
+ * An event that cannot be demoted or handed over because the queue is full is
+ * dropped. Each outcome is counted.
+ * 
+ * NOTE: Shedding is only meaningful for events whose cost is a worst case -
+ * an event which would in fact finish early may be shed unnecessarily.
+ * 
+ * Thread-safe
+ * 
+ */
+public class EventShedder {
+
+	public enum Policy {
+		DROP, DEMOTE, NOTIFY
+	}
+
+	private final Policy policy;
+	// demoted events (DEMOTE) or events for the application (NOTIFY)
+	private final EventQueue<InterruptibleAperiodicEvent> shedEvents;
+	private final AsyncEvent notification;
+
+	private final AtomicLong dropped;
+	private final AtomicLong demoted;
+	private final AtomicLong notified;
+
+	private EventShedder(Policy policy, EventQueue<InterruptibleAperiodicEvent> shedEvents,
+			AsyncEvent notification) {
+		this.policy = policy;
+		this.shedEvents = shedEvents;
+		this.notification = notification;
+		dropped = new AtomicLong();
+		demoted = new AtomicLong();
+		notified = new AtomicLong();
+	}
+
+	public static EventShedder dropping() {
+		return new EventShedder(Policy.DROP, null, null);
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) backgroundCapacity > 0
+	 * 
+	 * @param backgroundCapacity how many demoted events can wait at a time
+	 * @return
+	 */
+	public static EventShedder demoting(int backgroundCapacity) {
+		return new EventShedder(Policy.DEMOTE,
+				new BoundedDeadlineEventQueue<InterruptibleAperiodicEvent>(backgroundCapacity), null);
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) shedEvents != null && notification != null
+	 * 
+	 * @param shedEvents   where shed events are handed to the application
+	 * @param notification fired each time an event is handed over
+	 * @return
+	 */
+	public static EventShedder notifying(EventQueue<InterruptibleAperiodicEvent> shedEvents,
+			AsyncEvent notification) {
+		assert shedEvents != null && notification != null : "shedEvents and notification must not be null";
+		return new EventShedder(Policy.NOTIFY, shedEvents, notification);
+	}
+
+	/**
+	 * Does not allocate.
+	 * 
+	 * @param event
+	 * @param nowNanos
+	 * @return
+	 */
+	public boolean isFeasible(InterruptibleAperiodicEvent event, long nowNanos) {
+		return nowNanos + event.remainingCostNanos() <= event.absoluteDeadlineNanos();
+	}
+
+	/**
+	 * Takes an infeasible event out of service according to the policy. The event
+	 * must not be touched by the caller afterwards.
+	 * 
+	 * @param event an event that is neither queued nor being processed
+	 * @param log   log of the calling server
+	 */
+	public void shed(InterruptibleAperiodicEvent event, EventLog log) {
+		long id = event.id();
+		switch (policy) {
+		case DEMOTE:
+			assert !event.demoted : "a demoted event is not shed again";
+			// queued events are always reset (see InterruptibleAperiodicEvent.reset())
+			event.reset();
+			event.demoted = true;
+			if (shedEvents.push(event)) {
+				demoted.incrementAndGet();
+				log.log(LogCode.EVENT_DEMOTED, id);
+				return;
+			}
+			break;
+		case NOTIFY:
+			event.reset();
+			if (shedEvents.push(event)) {
+				notified.incrementAndGet();
+				log.log(LogCode.EVENT_SHED, id);
+				notification.fire();
+				return;
+			}
+			break;
+		default:
+			break;
+		}
+		dropped.incrementAndGet();
+		log.log(LogCode.EVENT_DROPPED, id);
+		event.retire();
+	}
+
+	/**
+	 * Next demoted event, for a server running at its background priority.
+	 * 
+	 * @return null if there is none, or the policy is not DEMOTE
+	 */
+	public InterruptibleAperiodicEvent nextDemoted() {
+		return (policy == Policy.DEMOTE) ? shedEvents.pop() : null;
+	}
+
+	/**
+	 * Puts an interrupted demoted event back in the background queue. It is not
+	 * counted as demoted again; it is only dropped (and counted as such) if the
+	 * queue is full. The event must not be touched by the caller afterwards.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) event.isDemoted() && event.canRestart()
+	 * 
+	 * @param event an event that is neither queued nor being processed
+	 * @param log   log of the calling server
+	 */
+	public void requeueDemoted(InterruptibleAperiodicEvent event, EventLog log) {
+		assert event.demoted && event.canRestart() : "only a restartable demoted event can be re-queued";
+		event.reset();
+		if (!shedEvents.push(event)) {
+			dropped.incrementAndGet();
+			log.log(LogCode.EVENT_DROPPED, event.id());
+			event.retire();
+		}
+	}
+
+	public Policy policy() {
+		return policy;
+	}
+
+	public long droppedCount() {
+		return dropped.get();
+	}
+
+	public long demotedCount() {
+		return demoted.get();
+	}
+
+	public long notifiedCount() {
+		return notified.get();
+	}
+}
@@ -0,0 +1,93 @@
+package rtsj.sandbox.aperiodic_service.common;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.realtime.AsyncEvent;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Submits events to a server's queue and releases the server's handler through
+ * its AsyncEvent, coalescing releases: once the handler has been released, no
+ * further fires are made until the handler reports (through handlerIdle())
+ * that it is about to stop draining the queue. A burst of events therefore
+ * costs one fire and one handler release rather than one per event.
+ * 
+ * The handler must call handlerIdle() when it finds no more work and then
+ * check the queue once more before returning: an event pushed before the flag
+ * was cleared is found by that check, an event pushed after it causes a new
+ * release. No submission can go unnoticed.
+ * 
+ * Thread-safe. Does not block or allocate.
+ * 
+ * @param <E>
+ */
+public class EventSubmitter<E> {
+
+	private final EventQueue<E> queue;
+	private final AsyncEvent event;
+	private final AtomicBoolean releasePending;
+
+	public EventSubmitter(EventQueue<E> queue, AsyncEvent event) {
+		this.queue = queue;
+		this.event = event;
+		this.releasePending = new AtomicBoolean();
+	}
+
+	/**
+	 * @param e
+	 * @return false if the queue rejected the event
+	 */
+	public boolean submit(E e) {
+		if (!queue.push(e)) {
+			return false;
+		}
+		release();
+		return true;
+	}
+
+	/**
+	 * Pushes events[offset] to events[offset + length - 1] with (at most) one
+	 * release of the handler.
+	 * 
+	 * @param events
+	 * @param offset
+	 * @param length
+	 * @return how many of the events were accepted by the queue (see
+	 *         EventQueue.pushAll())
+	 */
+	public int submitAll(E[] events, int offset, int length) {
+		int added = queue.pushAll(events, offset, length);
+		if (added > 0) {
+			release();
+		}
+		return added;
+	}
+
+	/**
+	 * Called by the handler when it is about to stop draining the queue, before
+	 * its final check of the queue.
+	 */
+	public void handlerIdle() {
+		releasePending.set(false);
+	}
+
+	private void release() {
+		if (releasePending.compareAndSet(false, true)) {
+			event.fire();
+		}
+	}
+}
@@ -0,0 +1,372 @@
+package rtsj.sandbox.aperiodic_service.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.realtime.AbsoluteTime;
+import javax.realtime.Clock;
+import javax.realtime.Interruptible;
+import javax.realtime.RelativeTime;
+
+import rtsj.sandbox.common.EventLog;
+import rtsj.sandbox.common.TimeUtils;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * RunnableAperiodicEvents implement Interruptible so they can be used as the
+ * target of AsynchronouslyInterruptedException* classes where the "run" method
+ * specifies main processing and the "interruptAction" the logic to apply when
+ * the handler's budget is about to be exceeded and processing hasn't finished
+ * yet.
+ * 
+ * Not thread-safe.
+ *
+ */
+
+public abstract class InterruptibleAperiodicEvent implements Interruptible {
+
+	private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+
+	protected final Clock clk;
+	protected final RelativeTime totalCost;
+	protected final RelativeTime deadline;
+	protected final AbsoluteTime absoluteDeadline;
+	protected final AbsoluteTime creationTime;
+	protected final String name;
+	// numeric identity for binary log records
+	protected long id;
+	// primitive copies of the times above so that ordering and deadline checks on
+	// the scheduling path do not allocate. Only change in reinitialise()
+	protected long totalCostNanos;
+	protected long deadlineNanos;
+	protected long absoluteDeadlineNanos;
+	protected long creationTimeNanos;
+	// scratch reading for deadlineMissed()
+	private final AbsoluteTime now;
+
+	protected boolean wasInterrupted;
+	protected boolean wasGenericInterrupted;
+	protected boolean canRestart;
+	protected RelativeTime remainingCost;
+	// log of the thread currently processing the event (see attachLog())
+	protected EventLog log;
+	// remaining cost as counted by the queue currently holding the event, so that
+	// the queue's total stays consistent whoever takes the event out (pop() or
+	// steal())
+	long accountedCostNanos;
+	// set once the event has been demoted (see EventShedder)
+	boolean demoted;
+
+	protected InterruptibleAperiodicEvent(RelativeTime cost, RelativeTime deadline, String name) {
+		clk = Clock.getRealtimeClock();
+		// copied, as reinitialise() updates these in place
+		this.totalCost = new RelativeTime(cost);
+		this.deadline = new RelativeTime(deadline);
+		// creation time and absolute deadline may not necessarily be the same as
+		// "physical" event time
+		creationTime = clk.getTime();
+		absoluteDeadline = new AbsoluteTime();
+		this.name = name;
+		remainingCost = new RelativeTime();
+		now = new AbsoluteTime();
+		initialise();
+	}
+
+	// ****************************RECYCLING****************************
+
+	/**
+	 * Turns this event into a new event with the given properties, created now,
+	 * without allocating. The event is given a new id.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) the event is neither queued nor being processed
+	 * 
+	 * @param cost
+	 * @param deadline relative to the creation time
+	 */
+	public void reinitialise(RelativeTime cost, RelativeTime deadline) {
+		clk.getTime(creationTime);
+		reinitialise(cost, deadline, creationTime);
+	}
+
+	/**
+	 * As reinitialise(cost, deadline) but with the given creation time.
+	 * 
+	 * @param cost
+	 * @param deadline     relative to the creation time
+	 * @param creationTime
+	 */
+	public void reinitialise(RelativeTime cost, RelativeTime deadline, AbsoluteTime creationTime) {
+		totalCost.set(cost.getMilliseconds(), cost.getNanoseconds());
+		this.deadline.set(deadline.getMilliseconds(), deadline.getNanoseconds());
+		this.creationTime.set(creationTime.getMilliseconds(), creationTime.getNanoseconds());
+		initialise();
+	}
+
+	/**
+	 * Called by the server once it is done with the event, i.e. it has completed
+	 * or was interrupted and cannot restart, and by submitters whose event was
+	 * rejected. Lets pooled events go back to their pool (see
+	 * AperiodicEventPool); does nothing by default.
+	 * 
+	 * The event must not be touched after this call as it may have been re-used.
+	 */
+	public void retire() {
+	}
+
+	// derives everything else from totalCost, deadline and creationTime
+	private void initialise() {
+		creationTime.add(deadline, absoluteDeadline);
+		id = ID_SEQUENCE.incrementAndGet();
+		log = EventLog.DISCARD;
+		wasInterrupted = false;
+		wasGenericInterrupted = false;
+		canRestart = true;
+		demoted = false;
+		remainingCost.set(totalCost.getMilliseconds(), totalCost.getNanoseconds());
+		totalCostNanos = TimeUtils.toNanos(totalCost);
+		deadlineNanos = TimeUtils.toNanos(deadline);
+		absoluteDeadlineNanos = TimeUtils.toNanos(absoluteDeadline);
+		creationTimeNanos = TimeUtils.toNanos(creationTime);
+	}
+
+	// ****************************STATUS REPORT****************************
+	/**
+	 * Unique (within this VM) numeric identity of the event, as logged.
+	 * 
+	 * @return
+	 */
+	public long id() {
+		return id;
+	}
+
+	/**
+	 * What is the total cost of this event?
+	 * 
+	 * NOTE: Each invocation creates a new instance. Override and simply return the
+	 * current instance if this method is to be called too often.
+	 * 
+	 * @return
+	 */
+	public RelativeTime cost() {
+		return new RelativeTime(totalCost);
+	}
+
+	/**
+	 * Allocation-free version of cost() (in the style of Clock.getTime(dest)).
+	 * 
+	 * @param dest the instance to copy the total cost into
+	 * @return dest
+	 */
+	public RelativeTime cost(RelativeTime dest) {
+		dest.set(totalCost.getMilliseconds(), totalCost.getNanoseconds());
+		return dest;
+	}
+
+	public long costNanos() {
+		return totalCostNanos;
+	}
+
+	/**
+	 * What is the remaining cost of this event after some processing?
+	 * 
+	 * NOTE: Each invocation creates a new instance. Override and simply return the
+	 * current instance if this method is to be called too often.
+	 * 
+	 * @return
+	 */
+	public RelativeTime remainingCost() {
+		return new RelativeTime(remainingCost);
+	}
+
+	/**
+	 * Allocation-free version of remainingCost().
+	 * 
+	 * @param dest the instance to copy the remaining cost into
+	 * @return dest
+	 */
+	public RelativeTime remainingCost(RelativeTime dest) {
+		dest.set(remainingCost.getMilliseconds(), remainingCost.getNanoseconds());
+		return dest;
+	}
+
+	public long remainingCostNanos() {
+		return TimeUtils.toNanos(remainingCost);
+	}
+
+	/**
+	 * NOTE: Each invocation creates a new instance. Override and simply return the
+	 * current instance if this method is to be called too often.
+	 * 
+	 * @return
+	 */
+	public RelativeTime relativeDeadline() {
+		return new RelativeTime(deadline);
+	}
+
+	/**
+	 * Allocation-free version of relativeDeadline().
+	 * 
+	 * @param dest the instance to copy the relative deadline into
+	 * @return dest
+	 */
+	public RelativeTime relativeDeadline(RelativeTime dest) {
+		dest.set(deadline.getMilliseconds(), deadline.getNanoseconds());
+		return dest;
+	}
+
+	public long relativeDeadlineNanos() {
+		return deadlineNanos;
+	}
+
+	/**
+	 * NOTE: Each invocation creates a new instance. Override and simply return the
+	 * current instance if this method is to be called too often.
+	 * 
+	 * @return
+	 */
+	public AbsoluteTime absoluteDeadline() {
+		return new AbsoluteTime(absoluteDeadline);
+	}
+
+	/**
+	 * Allocation-free version of absoluteDeadline().
+	 * 
+	 * @param dest the instance to copy the absolute deadline into
+	 * @return dest
+	 */
+	public AbsoluteTime absoluteDeadline(AbsoluteTime dest) {
+		dest.set(absoluteDeadline.getMilliseconds(), absoluteDeadline.getNanoseconds());
+		return dest;
+	}
+
+	/**
+	 * Nanoseconds since the epoch of the real-time clock.
+	 * 
+	 * @return
+	 */
+	public long absoluteDeadlineNanos() {
+		return absoluteDeadlineNanos;
+	}
+
+	/**
+	 * Not necessarily same as "arrival time".
+	 * 
+	 * NOTE: Each invocation creates a new instance. Override and simply return the
+	 * current instance if this method is to be called too often.
+	 * 
+	 * @return
+	 */
+	public AbsoluteTime creationTime() {
+		return new AbsoluteTime(creationTime);
+	}
+
+	/**
+	 * Allocation-free version of creationTime().
+	 * 
+	 * @param dest the instance to copy the creation time into
+	 * @return dest
+	 */
+	public AbsoluteTime creationTime(AbsoluteTime dest) {
+		dest.set(creationTime.getMilliseconds(), creationTime.getNanoseconds());
+		return dest;
+	}
+
+	/**
+	 * Nanoseconds since the epoch of the real-time clock.
+	 * 
+	 * @return
+	 */
+	public long creationTimeNanos() {
+		return creationTimeNanos;
+	}
+
+	/**
+	 * Was processing interrupted by a Timed timer timing-out or a call to fire()?
+	 * 
+	 * @return
+	 */
+	public boolean wasInterrupted() {
+		return wasInterrupted;
+	}
+
+	/**
+	 * Was processing interrupted by a call to interrupt()?
+	 * 
+	 * @return
+	 */
+	public boolean wasGenericInterrupted() {
+		return wasGenericInterrupted;
+	}
+
+	/**
+	 * Can processing for this event restart after being interrupted?
+	 * 
+	 * "true" implies (isRestartable() == true)
+	 * 
+	 * @return
+	 */
+	public boolean canRestart() {
+		return canRestart;
+	}
+
+	/**
+	 * Is this event of type "restartable"?
+	 * 
+	 * @return
+	 */
+	public boolean isTypeRestartable() {
+		return false;
+	}
+
+	/**
+	 * Was the event demoted to background service (see EventShedder)? A demoted
+	 * event is served on a best-effort basis and is not checked (or shed) again.
+	 * 
+	 * @return
+	 */
+	public boolean isDemoted() {
+		return demoted;
+	}
+
+	public boolean deadlineMissed() {
+		return TimeUtils.toNanos(clk.getTime(now)) > absoluteDeadlineNanos;
+	}
+
+	// ****************************STATE CHANGE****************************
+
+	/*
+	 * Clears interrupt and restartability flags. Must be called after interruption
+	 * and prior to adding the event back to the events queue.
+	 */
+	public void reset() {
+		wasInterrupted = false;
+		wasGenericInterrupted = false;
+		canRestart = true;
+	}
+
+	/**
+	 * Directs the event's log records to the log of the thread about to process
+	 * it. Must be called by that thread before each run, as an event may be
+	 * processed by different threads over its lifetime.
+	 * 
+	 * @param log
+	 */
+	public void attachLog(EventLog log) {
+		this.log = log;
+	}
+}
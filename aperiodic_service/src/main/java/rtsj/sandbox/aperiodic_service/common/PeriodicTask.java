@@ -1,5 +1,6 @@
 package rtsj.sandbox.aperiodic_service.common;
 
+import javax.realtime.AbsoluteTime;
 import javax.realtime.AsyncEventHandler;
 import javax.realtime.PeriodicParameters;
 import javax.realtime.PriorityParameters;
@@ -10,6 +11,8 @@ import javax.realtime.SchedulingParameters;
 import javax.realtime.memory.LTMemory;
 import javax.realtime.memory.ScopedMemory;
 
+import rtsj.sandbox.common.EventLog;
+import rtsj.sandbox.common.LogCode;
 import rtsj.sandbox.common.TimeUtils;
 
 /**
@@ -36,6 +39,9 @@ public class PeriodicTask extends RealtimeThread {
 
 	private final ScopedMemory mem = new LTMemory(2048);
 	private final RelativeTime cost;
+	private final int priority;
+	private final long periodNanos;
+	private final long costNanos;
 
 	/**
 	 * REQUIRES:
@@ -50,16 +56,35 @@ public class PeriodicTask extends RealtimeThread {
 		assert cost.compareToZero() > 0 : "Cost must not be negative";
 
 		this.cost = (RelativeTime) cost.clone();
+		this.priority = priority;
+		this.periodNanos = period * TimeUtils.NANOS_PER_MILLI;
+		this.costNanos = TimeUtils.toNanos(cost);
 		SchedulingParameters pri = new PriorityParameters(priority);
 		setSchedulingParameters(pri);
 		RelativeTime _period = new RelativeTime(period, 0);
 		ReleaseParameters rel = new PeriodicParameters(_period);
-		rel.setDeadlineMissHandler(new MissHandler());
+		rel.setDeadlineMissHandler(new MissHandler(name));
 		setReleaseParameters(rel);
 
 		setName(name);
 	}
 
+	/**
+	 * Starts the task with its first release at the given time rather than
+	 * immediately, so that a task-set can be released synchronously (as assumed by
+	 * SlackCalculator).
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) the task has not been started
+	 * 
+	 * @param firstRelease
+	 */
+	public void startAt(AbsoluteTime firstRelease) {
+		((PeriodicParameters) getReleaseParameters()).setStart(firstRelease);
+		start();
+	}
+
 	@Override
 	public void run() {
 		while (true) {
@@ -74,11 +99,43 @@ public class PeriodicTask extends RealtimeThread {
 		}
 	}
 
+	// ****************************STATUS REPORT****************************
+	// Task parameters as given in the constructor (for analysis/slack computations)
+
+	public int priority() {
+		return priority;
+	}
+
+	/**
+	 * Period (and implicit deadline) in nanoseconds.
+	 * 
+	 * @return
+	 */
+	public long periodNanos() {
+		return periodNanos;
+	}
+
+	/**
+	 * Worst-case execution time in nanoseconds.
+	 * 
+	 * @return
+	 */
+	public long costNanos() {
+		return costNanos;
+	}
+
 	private class MissHandler extends AsyncEventHandler {
 
+		// invocations of a handler are serialised, so it can own the log
+		private final EventLog log;
+
+		MissHandler(String taskName) {
+			log = EventLog.create(taskName + " miss handler", 16);
+		}
+
 		@Override
 		public void handleAsyncEvent() {
-			System.out.println("Deadline missed for thread #" + getName());
+			log.log(LogCode.TASK_DEADLINE_MISSED, PeriodicTask.this.getId());
 		}
 	}
 }
@@ -5,6 +5,7 @@ import javax.realtime.AsynchronouslyInterruptedException;
 import javax.realtime.Clock;
 import javax.realtime.RelativeTime;
 
+import rtsj.sandbox.common.LogCode;
 import rtsj.sandbox.common.TimeUtils;
 
 /**
@@ -45,13 +46,45 @@ public class RestartableAperiodicEvent extends InterruptibleAperiodicEvent
 
 	private final Clock clk;
 
+	// null if not pooled
+	private final AperiodicEventPool pool;
+	private final int poolSlot;
+
 	public RestartableAperiodicEvent(RelativeTime totalCost, RelativeTime deadline, String name) {
+		this(totalCost, deadline, name, null, -1);
+	}
+
+	// for AperiodicEventPool
+	RestartableAperiodicEvent(RelativeTime totalCost, RelativeTime deadline, String name, AperiodicEventPool pool,
+			int poolSlot) {
 		super(totalCost, deadline, name);
 		remainingCost = new RelativeTime(totalCost);
 		processingStart = new AbsoluteTime();
 		processingInterruptedEnd = new AbsoluteTime();
 		totalCostToInterruprion = new RelativeTime();
 		clk = Clock.getRealtimeClock();
+		this.pool = pool;
+		this.poolSlot = poolSlot;
+	}
+
+	@Override
+	public void reinitialise(RelativeTime cost, RelativeTime deadline, AbsoluteTime creationTime) {
+		super.reinitialise(cost, deadline, creationTime);
+		remainingCost.set(cost.getMilliseconds(), cost.getNanoseconds());
+	}
+
+	/**
+	 * Returns a pooled event to its pool.
+	 */
+	@Override
+	public void retire() {
+		if (pool != null) {
+			pool.release(this);
+		}
+	}
+
+	int poolSlot() {
+		return poolSlot;
 	}
 
 	@Override
@@ -70,10 +103,10 @@ public class RestartableAperiodicEvent extends InterruptibleAperiodicEvent
 	@Override
 	public void run(AsynchronouslyInterruptedException exception) throws AsynchronouslyInterruptedException {
 		clk.getTime(processingStart);
-		System.out.println("Processing event " + name + " at " + clk.getTime());
+		log.log(LogCode.EVENT_STARTED, id);
 		runLogic();
 		wasInterrupted = false;
-		System.out.println("Processing of event " + name + " completed successfully at " + clk.getTime());
+		log.log(LogCode.EVENT_COMPLETED, id);
 	}
 
 	/**
@@ -106,7 +139,7 @@ public class RestartableAperiodicEvent extends InterruptibleAperiodicEvent
 	}
 
 	private void handleAie() {
-		System.out.println("Processing event " + name + " interrupted at " + clk.getTime());
+		log.log(LogCode.EVENT_INTERRUPTED, id);
 		clk.getTime(processingInterruptedEnd);
 		recalculateRemainingCost();
 		amendRestartabilityStatus();
@@ -133,7 +166,7 @@ public class RestartableAperiodicEvent extends InterruptibleAperiodicEvent
 
 	private void handleDeadlineMiss() {
 		// Could also create a separate class whose instance is wired and used here
-		System.out.println("Deadline missed for event " + this);
+		log.log(LogCode.EVENT_DEADLINE_MISSED, id);
 	}
 
 	@Override
@@ -160,6 +193,17 @@ public class RestartableAperiodicEvent extends InterruptibleAperiodicEvent
 		return new RelativeTime(remainingCost);
 	}
 
+	@Override
+	public RelativeTime remainingCost(RelativeTime dest) {
+		dest.set(remainingCost.getMilliseconds(), remainingCost.getNanoseconds());
+		return dest;
+	}
+
+	@Override
+	public long remainingCostNanos() {
+		return TimeUtils.toNanos(remainingCost);
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	public int compareTo(RestartableAperiodicEvent other) {
@@ -0,0 +1,198 @@
+package rtsj.sandbox.aperiodic_service.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import rtsj.sandbox.common.LatencyHistogram;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Instrumentation for an aperiodic server, used to size server budgets:
+ * 
+ * 1) queueing delay: from event creation until it is first processed
+ * 
+ * 2) run time: how long each run of an event executed for (an event interrupted
+ * n times contributes n + 1 runs)
+ * 
+ * 3) budget utilisation: permille of the budget consumed in each server period
+ * 
+ * 4) counts of completed events, interruptions, restarts (interrupted events
+ * re-queued) and deadline misses
+ * 
+ * Recording methods are called from the server's thread and do not allocate or
+ * block (see LatencyHistogram). snapshot() may be called from any thread.
+ * 
+ */
+public class ServerMetrics {
+
+	// 1 minute, anything above that is recorded in the highest bucket
+	private static final long MAX_TRACKED_NANOS = 60_000_000_000L;
+	private static final long PERMILLE = 1000;
+
+	private final LatencyHistogram queueingDelay;
+	private final LatencyHistogram runTime;
+	private final LatencyHistogram budgetUtilisation;
+	private final AtomicLong completed;
+	private final AtomicLong interruptions;
+	private final AtomicLong restarts;
+	private final AtomicLong deadlineMisses;
+
+	public ServerMetrics() {
+		queueingDelay = new LatencyHistogram(MAX_TRACKED_NANOS);
+		runTime = new LatencyHistogram(MAX_TRACKED_NANOS);
+		budgetUtilisation = new LatencyHistogram(PERMILLE);
+		completed = new AtomicLong();
+		interruptions = new AtomicLong();
+		restarts = new AtomicLong();
+		deadlineMisses = new AtomicLong();
+	}
+
+	/**
+	 * To be called before each run of an event. Only an event's first run
+	 * (i.e. whilst none of its cost has been consumed) records its queueing delay.
+	 * 
+	 * @param event
+	 * @param startNanos
+	 */
+	public void eventStarting(InterruptibleAperiodicEvent event, long startNanos) {
+		if (event.remainingCostNanos() == event.costNanos()) {
+			queueingDelay.record(startNanos - event.creationTimeNanos());
+		}
+	}
+
+	/**
+	 * To be called after each run of an event.
+	 * 
+	 * @param event
+	 * @param runNanos
+	 */
+	public void eventRan(InterruptibleAperiodicEvent event, long runNanos) {
+		runTime.record(runNanos);
+		boolean interrupted = event.wasInterrupted() || event.wasGenericInterrupted();
+		if (interrupted) {
+			interruptions.incrementAndGet();
+		} else {
+			completed.incrementAndGet();
+		}
+		// restartable interrupted events get another chance, don't count them yet
+		if ((!interrupted || !event.canRestart()) && event.deadlineMissed()) {
+			deadlineMisses.incrementAndGet();
+		}
+	}
+
+	/**
+	 * To be called when an interrupted event is re-queued.
+	 */
+	public void eventRestarted() {
+		restarts.incrementAndGet();
+	}
+
+	/**
+	 * To be called once per server period, before the budget is replenished.
+	 * 
+	 * @param consumedNanos
+	 * @param budgetNanos
+	 */
+	public void periodEnded(long consumedNanos, long budgetNanos) {
+		budgetUtilisation.record((budgetNanos == 0) ? 0 : consumedNanos * PERMILLE / budgetNanos);
+	}
+
+	/**
+	 * Allocates.
+	 * 
+	 * @return
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(queueingDelay.snapshot(), runTime.snapshot(), budgetUtilisation.snapshot(),
+				completed.get(), interruptions.get(), restarts.get(), deadlineMisses.get());
+	}
+
+	/**
+	 * Point in time copy of a server's metrics.
+	 */
+	public static class Snapshot {
+
+		private final LatencyHistogram.Snapshot queueingDelay;
+		private final LatencyHistogram.Snapshot runTime;
+		private final LatencyHistogram.Snapshot budgetUtilisation;
+		private final long completed;
+		private final long interruptions;
+		private final long restarts;
+		private final long deadlineMisses;
+
+		private Snapshot(LatencyHistogram.Snapshot queueingDelay, LatencyHistogram.Snapshot runTime,
+				LatencyHistogram.Snapshot budgetUtilisation, long completed, long interruptions, long restarts,
+				long deadlineMisses) {
+			this.queueingDelay = queueingDelay;
+			this.runTime = runTime;
+			this.budgetUtilisation = budgetUtilisation;
+			this.completed = completed;
+			this.interruptions = interruptions;
+			this.restarts = restarts;
+			this.deadlineMisses = deadlineMisses;
+		}
+
+		/**
+		 * In nanoseconds.
+		 * 
+		 * @return
+		 */
+		public LatencyHistogram.Snapshot queueingDelay() {
+			return queueingDelay;
+		}
+
+		/**
+		 * In nanoseconds.
+		 * 
+		 * @return
+		 */
+		public LatencyHistogram.Snapshot runTime() {
+			return runTime;
+		}
+
+		/**
+		 * In permille of the budget, one value per period.
+		 * 
+		 * @return
+		 */
+		public LatencyHistogram.Snapshot budgetUtilisation() {
+			return budgetUtilisation;
+		}
+
+		public long completed() {
+			return completed;
+		}
+
+		public long interruptions() {
+			return interruptions;
+		}
+
+		public long restarts() {
+			return restarts;
+		}
+
+		public long deadlineMisses() {
+			return deadlineMisses;
+		}
+
+		@Override
+		public String toString() {
+			return "completed=" + completed + " interruptions=" + interruptions + " restarts=" + restarts
+					+ " deadlineMisses=" + deadlineMisses + "\n  queueing delay (ns): " + queueingDelay
+					+ "\n  run time (ns): " + runTime + "\n  budget utilisation (permille): " + budgetUtilisation;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package rtsj.sandbox.aperiodic_service.deferrable_server;
+
+import java.util.Random;
+
+import javax.realtime.AsyncEvent;
+import javax.realtime.PriorityScheduler;
+import javax.realtime.RelativeTime;
+import javax.realtime.memory.LTMemory;
+import javax.realtime.memory.ScopedMemory;
+
+import rtsj.sandbox.aperiodic_service.analysis.ResponseTimeAnalysis;
+import rtsj.sandbox.aperiodic_service.analysis.ResponseTimeAnalysis.TaskKind;
+import rtsj.sandbox.aperiodic_service.common.AperiodicEventPool;
+import rtsj.sandbox.aperiodic_service.common.BoundedDeadlineEventQueue;
+import rtsj.sandbox.aperiodic_service.common.EventShedder;
+import rtsj.sandbox.aperiodic_service.common.EventSubmitter;
+import rtsj.sandbox.aperiodic_service.common.InterruptibleAperiodicEvent;
+import rtsj.sandbox.aperiodic_service.common.PeriodicTask;
+import rtsj.sandbox.aperiodic_service.common.RestartableAperiodicEvent;
+import rtsj.sandbox.common.EventLogWriter;
+import rtsj.sandbox.common.PreciseWait;
+import rtsj.sandbox.common.ExecutionTimeSource;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * NOTE: Values for all components are largely random.
+ * 
+ */
+
+public class App {
+
+	private static final int EVENT_QUEUE_CAPACITY = 32;
+	// queued events plus the one being processed
+	private static final int EVENT_POOL_CAPACITY = EVENT_QUEUE_CAPACITY + 1;
+	private static final int MAX_BURST = 4;
+
+	public static void main(String... args) {
+
+		// calibrate busy-waiting (the events' and tasks' simulated work) before any
+		// real-time thread starts, rather than in the first event to spin, i.e. in a
+		// server under its budget's timer
+		PreciseWait.calibrate();
+
+		// drains the logs of the real-time threads to stdout at the lowest priority
+		new EventLogWriter(PriorityScheduler.instance().getMinPriority(), new RelativeTime(100, 0)).start();
+
+		int maxPriority = PriorityScheduler.instance().getMaxPriority();
+
+		// The task-set
+		PeriodicTask t1 = new PeriodicTask(maxPriority - 2, 40, new RelativeTime(10, 0), "Thread#1");
+		// higher period, lower priority
+		PeriodicTask t2 = new PeriodicTask(maxPriority - 3, 60, new RelativeTime(20, 0), "Thread#2");
+		RelativeTime serverPeriod = new RelativeTime(50, 0);
+		RelativeTime serverBudget = new RelativeTime(10, 0);
+
+		// refuse to start unless every task, including the server, meets its deadline
+		// (the replenisher's cost is negligible and is ignored)
+		ResponseTimeAnalysis rta = new ResponseTimeAnalysis(3);
+		rta.addPeriodicTask(t1);
+		rta.addPeriodicTask(t2);
+		int serverTask = rta.addTask(TaskKind.DEFERRABLE_SERVER, maxPriority - 1, serverPeriod, serverBudget);
+		rta.checkSchedulable();
+
+		t1.start();
+		t2.start();
+
+		// preallocated, lock-free so the generator never contends with the handler
+		BoundedDeadlineEventQueue<InterruptibleAperiodicEvent> q = new BoundedDeadlineEventQueue<InterruptibleAperiodicEvent>(
+				EVENT_QUEUE_CAPACITY);
+		AsyncEvent apeEvent = new AsyncEvent();
+		// one release per burst rather than per event
+		EventSubmitter<InterruptibleAperiodicEvent> submitter = new EventSubmitter<InterruptibleAperiodicEvent>(q,
+				apeEvent);
+
+		// assigning deferrable-server highest priority (relative to the task-set) as we
+		// can't guarantee ties will be broken in favour of the server
+		ScopedMemory mem = new LTMemory(2048);
+		int backgroundPriority = PriorityScheduler.instance().getMinPriority();
+		// events which can no longer make their deadline are only served in
+		// background priority, once the budget is used up
+		DeferrableServerEventHandler eventHandler = new DeferrableServerEventHandler(q, submitter,
+				serverBudget, maxPriority - 1, backgroundPriority, mem, false,
+				ExecutionTimeSource.threadCpuTimeOrWallClock(), EventShedder.demoting(EVENT_QUEUE_CAPACITY));
+		apeEvent.addHandler(eventHandler);
+		// assigning the budget replenisher the highest priority
+		DeferrableServerBudgetReplenisher replenisher = new DeferrableServerBudgetReplenisher(serverPeriod,
+				maxPriority, eventHandler, apeEvent, mem);
+		// later budget/period changes are only accepted if the task-set stays
+		// schedulable
+		replenisher.modeChange().guardWith(rta, serverTask);
+		replenisher.start();
+		beginEventGeneration(q, submitter);
+	}
+
+	// events arrive in bursts of 1 to MAX_BURST, as from a bursty sensor
+	private static void beginEventGeneration(BoundedDeadlineEventQueue<InterruptibleAperiodicEvent> q,
+			EventSubmitter<InterruptibleAperiodicEvent> submitter) {
+		Random r = new Random();
+		final int maxDelay = 5_000;
+		int nextDelay = 0;
+		// events go back to the pool once processed (or rejected)
+		AperiodicEventPool pool = new AperiodicEventPool(EVENT_POOL_CAPACITY);
+
+		// Event properties
+		RelativeTime cost = new RelativeTime(150, 0);
+		RelativeTime deadline = new RelativeTime(200, 0);
+		InterruptibleAperiodicEvent[] burst = new InterruptibleAperiodicEvent[MAX_BURST];
+
+		while (true) {
+			nextDelay = r.nextInt(maxDelay);
+			int burstSize = 0;
+			for (int i = 1 + r.nextInt(MAX_BURST); i > 0; i--) {
+				RestartableAperiodicEvent event = pool.acquire(cost, deadline);
+				if (event == null) {
+					System.out.println("Event pool exhausted, event dropped");
+				} else {
+					burst[burstSize++] = event;
+				}
+			}
+			int added = submitter.submitAll(burst, 0, burstSize);
+			if (added < burstSize) {
+				System.out.println((burstSize - added) + " event(s) rejected, queue full (total rejected: "
+						+ q.rejectedCount() + ")");
+				for (int i = added; i < burstSize; i++) {
+					burst[i].retire();
+				}
+			}
+			try {
+				Thread.sleep(nextDelay);
+			} catch (InterruptedException e) {
+				// Ignore
+			}
+		}
+	}
+}
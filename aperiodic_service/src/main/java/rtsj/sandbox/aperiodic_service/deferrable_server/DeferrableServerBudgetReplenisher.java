@@ -7,6 +7,9 @@ import javax.realtime.PriorityParameters;
 import javax.realtime.RealtimeThread;
 import javax.realtime.RelativeTime;
 
+import rtsj.sandbox.aperiodic_service.analysis.ServerModeChange;
+import rtsj.sandbox.common.TimeUtils;
+
 /**
  * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
  * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
@@ -32,12 +35,20 @@ import javax.realtime.RelativeTime;
  * It's priority must be higher than that given to the handler in order to
  * guarantee a preemption at replenish time.
  * 
+ * Mode changes (see modeChange()) are applied to both the replenisher's period
+ * and the handler's budget and priority at replenish time. A new server
+ * priority must therefore also stay below the replenisher's.
+ * 
  */
 public class DeferrableServerBudgetReplenisher extends RealtimeThread {
 
 	private final DeferrableServerEventHandler deferrableServerEventHandler;
 	private final AsyncEvent event;
 	private final MemoryArea mem;
+	private final ServerModeChange modeChange;
+	private final ServerModeChange.Target modeTarget;
+	// the server's period, only updated on a mode change
+	private final RelativeTime period;
 
 	public DeferrableServerBudgetReplenisher(RelativeTime period, int priority,
 			DeferrableServerEventHandler deferrableServerEventHandler, AsyncEvent event, MemoryArea memoryArea) {
@@ -45,11 +56,27 @@ public class DeferrableServerBudgetReplenisher extends RealtimeThread {
 		this.deferrableServerEventHandler = deferrableServerEventHandler;
 		this.event = event;
 		mem = memoryArea;
+		modeChange = new ServerModeChange();
+		modeTarget = this::applyMode;
+		this.period = new RelativeTime(period);
+	}
+
+	/**
+	 * Through which the server's budget, period and priority can be changed
+	 * whilst it runs. A change takes effect at the next replenishment.
+	 * 
+	 * @return
+	 */
+	public ServerModeChange modeChange() {
+		return modeChange;
 	}
 
 	@Override
 	public void run() {
 		while (true) {
+			// the replenishment is the server's period boundary, so the safe point for a
+			// mode change
+			modeChange.applyPending(modeTarget);
 			mem.enter(() -> {
 				deferrableServerEventHandler.replenishBudget();
 				// process any events that may be waiting for service due to insufficient budget
@@ -58,4 +85,13 @@ public class DeferrableServerBudgetReplenisher extends RealtimeThread {
 			waitForNextPeriod();
 		}
 	}
+
+	private void applyMode(long budgetNanos, long periodNanos, int priority) {
+		assert priority < ((PriorityParameters) getSchedulingParameters())
+				.getPriority() : "server priority must stay below the replenisher's";
+		deferrableServerEventHandler.applyMode(budgetNanos, priority);
+		period.set(periodNanos / TimeUtils.NANOS_PER_MILLI, (int) (periodNanos % TimeUtils.NANOS_PER_MILLI));
+		// takes effect from the next release
+		((PeriodicParameters) getReleaseParameters()).setPeriod(period);
+	}
 }
@@ -0,0 +1,566 @@
+package rtsj.sandbox.aperiodic_service.deferrable_server;
+
+import javax.realtime.AbsoluteTime;
+import javax.realtime.BoundAsyncEventHandler;
+import javax.realtime.Clock;
+import javax.realtime.MemoryArea;
+import javax.realtime.PriorityParameters;
+import javax.realtime.RealtimeThread;
+import javax.realtime.RelativeTime;
+import javax.realtime.SchedulingParameters;
+import javax.realtime.Timed;
+
+import rtsj.sandbox.aperiodic_service.common.EventQueue;
+import rtsj.sandbox.aperiodic_service.common.EventShedder;
+import rtsj.sandbox.aperiodic_service.common.EventSubmitter;
+import rtsj.sandbox.aperiodic_service.common.InterruptibleAperiodicEvent;
+import rtsj.sandbox.aperiodic_service.common.ServerMetrics;
+import rtsj.sandbox.common.EventLog;
+import rtsj.sandbox.common.LogCode;
+import rtsj.sandbox.common.ExecutionBudget;
+import rtsj.sandbox.common.ExecutionTimeSource;
+import rtsj.sandbox.common.TimeUtils;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Together with DeferrableServerBudgetReplenisher forms a logical
+ * implementation of the Deferrable-Server algorithm for aperiodic service.
+ * Responsible for handling each aperiodic event and managing the aperiodic
+ * events queue.
+ * 
+ * In order for the schedulability analysis to be correct under RM, it's
+ * priority must be equal to the highest priority of the periodic task-set
+ * running alongside this server (i.e. task with shortest period) _only_ if
+ * priority ties are resolved in favour of the server. If they aren't, then this
+ * server must be given a higher priority.
+ * 
+ * NOTE: This handler is a BoundAsyncEventHandler and is therefore given a
+ * dedicated thread. Since a Deferrable Server is effectively one more task in
+ * the entire task-set it is justifiable to not incur the overhead of attaching
+ * a new thread to it every time it is called.
+ * 
+ * INVARIANTS:
+ * 
+ * 1) (budget.remaining() >= 0) && (budget.remaining() <= budget.total())
+ * 
+ * 2) normalPriority > backgroundPriority
+ * 
+ * OPEN QUESTIONS:
+ * 
+ * Does the handler need to be tied to one handling logic or be generic and
+ * process any events? If the former then this handler must be configured with
+ * one Interruptible implementation which allows an event to be set. If the
+ * latter then the logic must be coded in the event object itself as it is done
+ * in this implementation.
+ * 
+ * The question of which memory area events are created in hasn't been dealt
+ * with at all. If excessive object creation is to be avoided then a recycling
+ * Queue implemented based on the wait-free constructs should be provided.
+ * 
+ * 
+ * 
+ */
+public class DeferrableServerEventHandler extends BoundAsyncEventHandler {
+
+	private static final int LOG_CAPACITY = 256;
+
+	private final Timed timed;
+	private final Clock clk;
+	// volatile since it is assigned in a non-synchronised manner
+	private volatile Thread handlerThread;
+
+	// These values may be modified from within scoped memory (through the set*()
+	// methods), hence it's a good idea if all assignments are made in constructor
+	// and are final
+	private final EventQueue<InterruptibleAperiodicEvent> eventQueue;
+	// null if releases are not coalesced
+	private final EventSubmitter<InterruptibleAperiodicEvent> submitter;
+	private final ExecutionBudget budget;
+	// budget in RTSJ time, only updated when passed to the Timed object
+	private final RelativeTime timeout;
+
+	private final AbsoluteTime eventProcessingStart;
+	// what each run of an event is charged from
+	private final ExecutionTimeSource executionTime;
+	// null if infeasible events are processed anyway
+	private final EventShedder shedder;
+	private final ServerMetrics metrics;
+	private final EventLog log;
+
+	// only changed by a mode change (see applyMode())
+	private volatile int normalPriority;
+	private final int backgroundPriority;
+
+	private boolean runningInBackgroundPriority;
+	// queues of servers this one may steal from when idle, null if it doesn't.
+	// Assigned once before the handler is first released
+	private volatile EventQueue<InterruptibleAperiodicEvent>[] stealingPeers;
+
+	public DeferrableServerEventHandler(EventQueue<InterruptibleAperiodicEvent> eventQueue, RelativeTime totalBudget,
+			int priority, int backgroundPriority, MemoryArea memoryArea, boolean noHeap) {
+		this(eventQueue, null, totalBudget, priority, backgroundPriority, memoryArea, noHeap);
+	}
+
+	public DeferrableServerEventHandler(EventQueue<InterruptibleAperiodicEvent> eventQueue,
+			EventSubmitter<InterruptibleAperiodicEvent> submitter, RelativeTime totalBudget, int priority,
+			int backgroundPriority, MemoryArea memoryArea, boolean noHeap) {
+		this(eventQueue, submitter, totalBudget, priority, backgroundPriority, memoryArea, noHeap,
+				ExecutionTimeSource.threadCpuTimeOrWallClock());
+	}
+
+	/**
+	 * @param eventQueue
+	 * @param submitter          through which events are submitted, so that this
+	 *                           handler can tell it when releases are needed again
+	 *                           (see EventSubmitter)
+	 * @param totalBudget
+	 * @param priority
+	 * @param backgroundPriority
+	 * @param memoryArea
+	 * @param noHeap
+	 * @param executionTime      source of the execution time charged against the
+	 *                           budget
+	 */
+	public DeferrableServerEventHandler(EventQueue<InterruptibleAperiodicEvent> eventQueue,
+			EventSubmitter<InterruptibleAperiodicEvent> submitter, RelativeTime totalBudget, int priority,
+			int backgroundPriority, MemoryArea memoryArea, boolean noHeap, ExecutionTimeSource executionTime) {
+		this(eventQueue, submitter, totalBudget, priority, backgroundPriority, memoryArea, noHeap, executionTime,
+				null);
+	}
+
+	/**
+	 * @param eventQueue
+	 * @param submitter          through which events are submitted, so that this
+	 *                           handler can tell it when releases are needed again
+	 *                           (see EventSubmitter)
+	 * @param totalBudget
+	 * @param priority
+	 * @param backgroundPriority
+	 * @param memoryArea
+	 * @param noHeap
+	 * @param executionTime      source of the execution time charged against the
+	 *                           budget
+	 * @param shedder            sheds events which can no longer meet their
+	 *                           deadline, null to process them anyway
+	 */
+	public DeferrableServerEventHandler(EventQueue<InterruptibleAperiodicEvent> eventQueue,
+			EventSubmitter<InterruptibleAperiodicEvent> submitter, RelativeTime totalBudget, int priority,
+			int backgroundPriority, MemoryArea memoryArea, boolean noHeap, ExecutionTimeSource executionTime,
+			EventShedder shedder) {
+		super(new PriorityParameters(priority), null, null, memoryArea, null, noHeap, null);
+		this.eventQueue = eventQueue;
+		this.submitter = submitter;
+		this.executionTime = executionTime;
+		this.shedder = shedder;
+
+		// start with a full budget
+		this.budget = new ExecutionBudget(totalBudget);
+		this.timeout = new RelativeTime(totalBudget);
+		timed = new Timed(timeout);
+
+		this.eventProcessingStart = new AbsoluteTime();
+		this.metrics = new ServerMetrics();
+		this.log = EventLog.create("DeferrableServer", LOG_CAPACITY);
+
+		clk = Clock.getRealtimeClock();
+		this.normalPriority = priority;
+		this.backgroundPriority = backgroundPriority;
+		// just making it explicit in the code
+		this.runningInBackgroundPriority = false;
+
+		assertClassInvariants();
+	}
+
+	/**
+	 * The budget replenisher is a periodic thread
+	 * (DeferrableServerBudgetReplenisher) which runs at a higher priority than this
+	 * handler, preempts it and calls replenishBudget() on this object. When this
+	 * happens there are two (notional) states this handler could be in: waiting, if
+	 * it's budget has been exceeded or there are no more events to process or it
+	 * could be running (note, it cannot have been preempted or blocked since it
+	 * runs at a priority higher than the periodic task-set and doesn't synchronise
+	 * on any common resource other than itself with the replenisher). If it is
+	 * running, then processing needs to be paused, the budget replenished and
+	 * processing of the _same_ event resumed.
+	 * 
+	 * This becomes important when the events queue applies some ordering other than
+	 * arrival time:
+	 * 
+	 * Assume (tc) is the current time, (tr) the next replenish time and the
+	 * remaining server budget is (tr + a -tc) where tc < tr < (tr + a), so current
+	 * processing would be pushed to just over the next replenish time. Then, if the
+	 * remaining event cost is greater than (tr + a - tc) the event would be
+	 * interrupted at tr, it would be put back into the queue (assuming it's
+	 * restartable) and a newer event with say a smaller cost (assuming ordering by
+	 * cost) would effectively "preempt" it. To prevent this from happening, the
+	 * event is interrupted upon each replenish event, the budget is replenished and
+	 * the same event is subsequently restarted. This will guarantee a continuation
+	 * in the handler's behaviour. It can be argued that this is the desired
+	 * behaviour when a specific queue sorting policy is in place but this approach
+	 * perhaps provides better responsiveness for the currently processing event
+	 * where replenishment is within it's execution interval.
+	 * 
+	 * NOTE: The reason the above analysis is relevant is due to the fact that this
+	 * application is compiled against a 1.1 version of the spec and relies on the
+	 * resetTime(...) method of Timed class which resets the time for the _next_
+	 * invocation of doInterruptible(..). The newest 2.0 spec supports a method
+	 * called restart(...) which adjusts the timeout and restarts the timer _whilst_
+	 * the Timed object is running, making interrupting the handling thread and
+	 * checking the different interrupt types in events, redundant.
+	 * 
+	 * NOTE: Runs in memory area passed in the constructor.
+	 * 
+	 * NOTE: All small private methods should be inlined by the builder.
+	 * 
+	 */
+	@Override
+	public void handleAsyncEvent() {
+		try {
+			restoreNormalPriorityIfBg();
+			// stash handling thread in a variable so that the replenisher can interrupt it.
+			// As this is a BoundAsyncEventHandler the variable will always get assigned to
+			// the same thread
+			handlerThread = RealtimeThread.currentRealtimeThread();
+			// pending fire-count is not important here as this handler is driven
+			// exclusively by the events queue - clear this for consistency
+			getAndClearPendingFireCount();
+			do {
+				drainQueue();
+			} while (submitterNeedsRecheck());
+		} finally {
+			// clear any pending interrupt set by the replenisher but didn't
+			// cause an event interrupt (i.e. replenish event took place outside
+			// doInterruptible())
+			RealtimeThread.interrupted();
+		}
+	}
+
+	private void drainQueue() {
+		for (InterruptibleAperiodicEvent event = nextEvent(); event != null; event = nextEvent()) {
+			runAndAdjustRemainingBudget(event);
+			if (event.isDemoted()) {
+				finishDemoted(event);
+				continue;
+			}
+			if (event.wasGenericInterrupted()) {
+				// event was interrupted by budget-replenish event. With budget now replenished,
+				// try running the _same_ event to completion or until budget is depleted
+				restoreNormalPriorityIfBg();
+				runAndAdjustRemainingBudget(event);
+			}
+			if (event.wasInterrupted()) {
+				if (event.canRestart() && !isFeasible(event)) {
+					// it would only complete after its deadline - don't let it use more budget
+					shedder.shed(event, log);
+				} else if (event.canRestart()) {
+					// event was interrupted by budget-depletion event. Re-push so that it is
+					// processed in subsequent runs
+					event.reset();
+					if (eventQueue.push(event)) {
+						metrics.eventRestarted();
+					} else {
+						// the queue filled up with new arrivals whilst the event ran
+						log.log(LogCode.EVENT_REQUEUE_REJECTED, event.id());
+						event.retire();
+					}
+				} else {
+					// this is an open question: error-handle this? reject non-restartable in the
+					// first place?
+					event.retire();
+				}
+				// the budget is charged in execution time but the timer counts wall-clock
+				// time, so an event preempted whilst running is interrupted with budget left
+				// over - only a used up budget sends the server to background
+				if (isBudgetExhausted()) {
+					demoteToBackgroundPriority();
+				}
+			} else {
+				event.retire();
+			}
+		}
+	}
+
+	/**
+	 * Own events first. When there are none left and budget remains, the most
+	 * urgent restartable event queued at a peer server is stolen instead (global
+	 * EDF across the peers). A stolen event is owned by this server from then on,
+	 * so if it is interrupted it is re-pushed to this server's queue.
+	 * 
+	 * Infeasible own and stolen events are shed on the way.
+	 * 
+	 * Stealing is never done in background priority, as that would let a server
+	 * with no budget take events from peers which may still have budget. Demoted
+	 * events (see EventShedder) on the other hand are _only_ served in background
+	 * priority, once the budget is used up, so that they never take budget or
+	 * server priority from feasible work.
+	 * 
+	 * @return null if there is nothing this server can process now
+	 */
+	private InterruptibleAperiodicEvent nextEvent() {
+		while (canProcess()) {
+			// may be null if a peer has just stolen the last queued event
+			InterruptibleAperiodicEvent event = eventQueue.pop();
+			if (event == null) {
+				break;
+			}
+			if (isFeasible(event)) {
+				return event;
+			}
+			shedder.shed(event, log);
+		}
+		if (hasSpareBudget()) {
+			if (stealingPeers != null) {
+				InterruptibleAperiodicEvent stolen = stealFromPeers();
+				if (stolen != null) {
+					if (isFeasible(stolen)) {
+						return stolen;
+					}
+					shedder.shed(stolen, log);
+				}
+			}
+			return null;
+		}
+		return nextDemoted();
+	}
+
+	private InterruptibleAperiodicEvent nextDemoted() {
+		if (shedder == null || !isBudgetExhausted()) {
+			return null;
+		}
+		InterruptibleAperiodicEvent event = shedder.nextDemoted();
+		if (event != null) {
+			// the next replenishment interrupts it and restores the normal priority
+			demoteToBackgroundPriority();
+		}
+		return event;
+	}
+
+	/**
+	 * A demoted event only runs in background priority, so it is not run again on
+	 * a replenishment, when the server turns to its own work, and is neither shed
+	 * nor counted as restarted if interrupted.
+	 */
+	private void finishDemoted(InterruptibleAperiodicEvent event) {
+		if (event.wasGenericInterrupted()) {
+			restoreNormalPriorityIfBg();
+		}
+		if ((event.wasInterrupted() || event.wasGenericInterrupted()) && event.canRestart()) {
+			shedder.requeueDemoted(event, log);
+		} else {
+			event.retire();
+		}
+	}
+
+	private boolean isFeasible(InterruptibleAperiodicEvent event) {
+		// eventProcessingStart is not touched by the replenisher
+		return shedder == null || shedder.isFeasible(event, TimeUtils.toNanos(clk.getTime(eventProcessingStart)));
+	}
+
+	private InterruptibleAperiodicEvent stealFromPeers() {
+		EventQueue<InterruptibleAperiodicEvent>[] peers = stealingPeers;
+		EventQueue<InterruptibleAperiodicEvent> victim = null;
+		long earliestDeadline = Long.MAX_VALUE;
+		for (int i = 0; i < peers.length; i++) {
+			long deadline = peers[i].stealableDeadlineNanos();
+			if (deadline < earliestDeadline) {
+				earliestDeadline = deadline;
+				victim = peers[i];
+			}
+		}
+		// null if the event was taken by its owner (or another thief) in the meantime,
+		// in which case it is left for the next release rather than rescanning
+		return (victim == null) ? null : victim.steal();
+	}
+
+	/**
+	 * Tells the submitter (if any) that releases are needed again and checks
+	 * whether an event arrived before it was told so, i.e. without releasing this
+	 * handler.
+	 * 
+	 * @return true if the queue must be drained again
+	 */
+	private boolean submitterNeedsRecheck() {
+		if (submitter == null) {
+			return false;
+		}
+		submitter.handlerIdle();
+		return canProcess();
+	}
+
+	/**
+	 * NOTE: The replenisher will cause a generic AIE to be raised (since it's
+	 * interrupting via interrupt()) and it is possible that when this happens there
+	 * is already a pending AIE in the stack (i.e. Timed has fired only slightly
+	 * sooner). This however will not affect the expected behaviour of the
+	 * replenisher getting priority, as based on the AIE nesting rules the generic
+	 * AIE will overrule (and replace) any pending AIEs.
+	 */
+	public synchronized void replenishBudget() {
+		metrics.periodEnded(budget.total() - budget.remaining(), budget.total());
+		if (budget.isFull()) {
+			// no events processed since last replenish time - no replenish needed
+			return;
+		}
+		budget.replenish();
+		timed.resetTime(budget.remaining(timeout));
+		if (handlerThread != null) {
+			// interrupt status for thread is cleared in event (when interruptAction() in
+			// RestartableAperiodicEvent returns) or when this handler completes a run
+			handlerThread.interrupt();
+		}
+		assertClassInvariants();
+	}
+
+	public ServerMetrics metrics() {
+		return metrics;
+	}
+
+	/**
+	 * Switches to a new budget and (normal) priority. Called by the replenisher at
+	 * the boundary of the server's period, just before replenishBudget(), so the
+	 * new budget is the one replenished.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) budgetNanos > 0
+	 * 
+	 * 2) priority > backgroundPriority
+	 * 
+	 * @param budgetNanos
+	 * @param priority
+	 */
+	synchronized void applyMode(long budgetNanos, int priority) {
+		budget.setTotal(budgetNanos);
+		normalPriority = priority;
+		if (!runningInBackgroundPriority) {
+			changePriority(priority);
+		}
+		// replenishBudget() skips a full budget, which a reduced total may have left
+		timed.resetTime(budget.remaining(timeout));
+		assertClassInvariants();
+	}
+
+	/**
+	 * Lets this server steal restartable events from the given queues whenever its
+	 * own queue is empty and it still has budget. Stolen work is charged to this
+	 * server's budget so the schedulability of every server is unaffected.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) called before the handler is first released
+	 * 
+	 * 2) peers does not contain this server's own queue
+	 * 
+	 * @param peers
+	 */
+	public void setStealingPeers(EventQueue<InterruptibleAperiodicEvent>[] peers) {
+		for (int i = 0; i < peers.length; i++) {
+			assert peers[i] != eventQueue : "a server cannot steal from its own queue";
+		}
+		stealingPeers = peers;
+	}
+
+	/**
+	 * Are conditions right to start processing?
+	 * 
+	 * As this method is synchronised (protecting "budget" from
+	 * budget-replenisher) the following predicates are race-free, except that a
+	 * peer server (see setStealingPeers()) may empty the queue after it has been
+	 * checked.
+	 * 
+	 * @return
+	 */
+	private synchronized boolean canProcess() {
+		return (!runningInBackgroundPriority && !eventQueue.isEmpty() && !budget.isExhausted())
+				|| (runningInBackgroundPriority && !eventQueue.isEmpty());
+	}
+
+	private synchronized boolean hasSpareBudget() {
+		return !runningInBackgroundPriority && !budget.isExhausted();
+	}
+
+	private synchronized boolean isBudgetExhausted() {
+		return budget.isExhausted();
+	}
+
+	private void runAndAdjustRemainingBudget(InterruptibleAperiodicEvent event) {
+		// eventProcessingStart is not touched by the replenisher
+		clk.getTime(eventProcessingStart);
+		metrics.eventStarting(event, TimeUtils.toNanos(eventProcessingStart));
+		event.attachLog(log);
+		// If a pending generic AIE exists at this point (i.e. the replenisher has just
+		// ran) this AIE will be thrown immediately and only interruptAction will run
+		// which may introduce some processing latency (more specifically a conditional
+		// check and two method calls). This can be avoided if a version 2.0
+		// implementation is used (see comment in handleAsyncEvent())
+		armTimerIfBackground(event);
+		long executionStart = executionTime.currentThreadNanos();
+		timed.doInterruptible(event);
+		long processingCost = executionTime.currentThreadNanos() - executionStart;
+		metrics.eventRan(event, processingCost);
+		adjustForNextRun(processingCost);
+	}
+
+	// in background priority the budget is used up, so the timer is bounded by the
+	// event itself rather than by the (empty) budget; the next replenishment
+	// interrupts the event anyway
+	private synchronized void armTimerIfBackground(InterruptibleAperiodicEvent event) {
+		if (runningInBackgroundPriority) {
+			timed.resetTime(event.remainingCost(timeout));
+		}
+	}
+
+	private synchronized void adjustForNextRun(long processingCost) {
+		budget.consume(processingCost);
+		// adjust new interrupt timeout
+		timed.resetTime(budget.remaining(timeout));
+		assertClassInvariants();
+	}
+
+	// synchronized as applyMode() (the replenisher) reads the flag
+	private synchronized void restoreNormalPriorityIfBg() {
+		if (runningInBackgroundPriority) {
+			runningInBackgroundPriority = false;
+			changePriority(normalPriority);
+		}
+	}
+
+	private synchronized void demoteToBackgroundPriority() {
+		if (!runningInBackgroundPriority) {
+			runningInBackgroundPriority = true;
+			changePriority(backgroundPriority);
+		}
+	}
+
+	private void changePriority(int priority) {
+		SchedulingParameters sp = getSchedulingParameters();
+		if (sp instanceof PriorityParameters) {
+			((PriorityParameters) sp).setPriority(priority);
+		} else {
+			// not PriorityParameters??
+			throw new RuntimeException("Was expecting SchedulingParameters object for " + getClass().getName()
+					+ " to be of type \"PriorityParameters\" but it was: " + sp.getClass().getName());
+		}
+	}
+
+	private void assertClassInvariants() {
+		assert (budget.remaining() >= 0 && budget.remaining() <= budget
+				.total()) : "remaining budget must not be negative or more than the total budget ["
+						+ budget.total() + "ns]";
+		assert normalPriority > backgroundPriority : "normalPriority cannot be equal or less than backgroundPriority";
+	}
+}
@@ -0,0 +1,104 @@
+package rtsj.sandbox.aperiodic_service.multi_server;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import javax.realtime.Affinity;
+import javax.realtime.PriorityScheduler;
+import javax.realtime.RelativeTime;
+
+import rtsj.sandbox.aperiodic_service.common.AperiodicEventPool;
+import rtsj.sandbox.aperiodic_service.common.RestartableAperiodicEvent;
+import rtsj.sandbox.common.EventLogWriter;
+import rtsj.sandbox.common.PreciseWait;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * NOTE: Values for all components are largely random.
+ * 
+ * One Deferrable Server partition per available processor (up to
+ * MAX_PARTITIONS), with events routed to the least loaded partition and
+ * idle partitions stealing restartable events from the others.
+ * 
+ */
+public class App {
+
+	private static final int MAX_PARTITIONS = 4;
+	private static final int EVENT_QUEUE_CAPACITY = 32;
+	// enough for every partition's queue to be full
+	private static final int EVENT_POOL_CAPACITY = MAX_PARTITIONS * (EVENT_QUEUE_CAPACITY + 1);
+
+	public static void main(String... args) {
+
+		// calibrate busy-waiting (the events' and tasks' simulated work) before any
+		// real-time thread starts, rather than in the first event to spin, i.e. in a
+		// server under its budget's timer
+		PreciseWait.calibrate();
+
+		// drains the logs of the real-time threads to stdout at the lowest priority
+		new EventLogWriter(PriorityScheduler.instance().getMinPriority(), new RelativeTime(100, 0)).start();
+
+		int maxPriority = PriorityScheduler.instance().getMaxPriority();
+		int backgroundPriority = PriorityScheduler.instance().getMinPriority();
+
+		BitSet processors = Affinity.getAvailableProcessors();
+		int partitionCount = Math.min(MAX_PARTITIONS, processors.cardinality());
+		ServerPartition[] partitions = new ServerPartition[partitionCount];
+		for (int i = 0, processor = processors.nextSetBit(0); i < partitionCount; i++, processor = processors
+				.nextSetBit(processor + 1)) {
+			partitions[i] = new ServerPartition(processor, new RelativeTime(10, 0), new RelativeTime(50, 0),
+					maxPriority - 1, backgroundPriority, maxPriority, EVENT_QUEUE_CAPACITY);
+		}
+		// idle partitions help out ones with a backlog
+		for (ServerPartition partition : partitions) {
+			partition.stealFrom(partitions);
+		}
+
+		PartitionedEventDispatcher dispatcher = new PartitionedEventDispatcher(partitions, new LeastLoadedRouter());
+		dispatcher.start();
+		beginEventGeneration(dispatcher);
+	}
+
+	private static void beginEventGeneration(PartitionedEventDispatcher dispatcher) {
+		Random r = new Random();
+		final int maxDelay = 1_000;
+		int nextDelay = 0;
+		// events go back to the pool once processed (or rejected)
+		AperiodicEventPool pool = new AperiodicEventPool(EVENT_POOL_CAPACITY);
+
+		// Event properties
+		RelativeTime cost = new RelativeTime(20, 0);
+		RelativeTime deadline = new RelativeTime(200, 0);
+
+		while (true) {
+			nextDelay = r.nextInt(maxDelay);
+
+			RestartableAperiodicEvent event = pool.acquire(cost, deadline);
+			if (event == null) {
+				System.out.println("Event pool exhausted, event dropped");
+			} else if (!dispatcher.dispatch(event)) {
+				System.out.println("Event " + event.id() + " rejected, partition queue full");
+				event.retire();
+			}
+			try {
+				Thread.sleep(nextDelay);
+			} catch (InterruptedException e) {
+				// Ignore
+			}
+		}
+	}
+}
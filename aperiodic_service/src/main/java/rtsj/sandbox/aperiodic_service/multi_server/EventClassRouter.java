@@ -0,0 +1,61 @@
+package rtsj.sandbox.aperiodic_service.multi_server;
+
+import rtsj.sandbox.aperiodic_service.common.InterruptibleAperiodicEvent;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Routes events by their class, e.g. so that each kind of event is always
+ * served by the same partition (and stays in that processor's cache). Events of
+ * classes that have not been mapped are given to the fallback router.
+ * 
+ * The mapping is fixed at construction. Lookups are a linear scan of a short
+ * table and do not allocate.
+ * 
+ */
+public class EventClassRouter implements EventRouter {
+
+	private final Class<?>[] classes;
+	private final int[] partitionIndices;
+	private final EventRouter fallback;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) classes.length == partitionIndices.length
+	 * 
+	 * @param classes          event classes (exact match)
+	 * @param partitionIndices partition for each of the classes
+	 * @param fallback         for unmapped classes
+	 */
+	public EventClassRouter(Class<?>[] classes, int[] partitionIndices, EventRouter fallback) {
+		assert classes.length == partitionIndices.length : "a partition must be given for each class";
+		this.classes = classes.clone();
+		this.partitionIndices = partitionIndices.clone();
+		this.fallback = fallback;
+	}
+
+	@Override
+	public int route(InterruptibleAperiodicEvent event, ServerPartition[] partitions) {
+		Class<?> c = event.getClass();
+		for (int i = 0; i < classes.length; i++) {
+			if (classes[i] == c) {
+				return partitionIndices[i];
+			}
+		}
+		return fallback.route(event, partitions);
+	}
+}
@@ -1,8 +1,6 @@
-package rtsj.sandbox.common;
+package rtsj.sandbox.aperiodic_service.multi_server;
 
-import javax.realtime.AbsoluteTime;
-import javax.realtime.Clock;
-import javax.realtime.RelativeTime;
+import rtsj.sandbox.aperiodic_service.common.InterruptibleAperiodicEvent;
 
 /**
  * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
@@ -18,19 +16,19 @@ import javax.realtime.RelativeTime;
  * 
  * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
  * AVAILABLE.
- *
+ * 
+ * 
+ * Strategy for choosing the partition that serves an event. Implementations
+ * must not allocate or block as they run on the submitting thread.
  * 
  */
-public class TimeUtils {
-
-	private static final Clock CLK = Clock.getRealtimeClock();
+@FunctionalInterface
+public interface EventRouter {
 
-	@SuppressWarnings("unchecked")
-	public static void spinWait(RelativeTime time) {
-		AbsoluteTime now = CLK.getTime();
-		AbsoluteTime waitUntil = now.add(time);
-		while (now.compareTo(waitUntil) < 0) {
-			CLK.getTime(now);
-		}
-	}
-}
\ No newline at end of file
+	/**
+	 * @param event
+	 * @param partitions
+	 * @return index of the chosen partition
+	 */
+	int route(InterruptibleAperiodicEvent event, ServerPartition[] partitions);
+}
@@ -0,0 +1,43 @@
+package rtsj.sandbox.aperiodic_service.multi_server;
+
+import rtsj.sandbox.aperiodic_service.common.InterruptibleAperiodicEvent;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Routes each event to the partition with the least queued work (remaining
+ * cost of the events waiting for service), the lowest index winning ties.
+ * 
+ * NOTE: Loads are read without synchronisation and may be slightly stale, which
+ * only affects balance, not correctness.
+ * 
+ */
+public class LeastLoadedRouter implements EventRouter {
+
+	@Override
+	public int route(InterruptibleAperiodicEvent event, ServerPartition[] partitions) {
+		int chosen = 0;
+		long lowest = partitions[0].queuedCostNanos();
+		for (int i = 1; i < partitions.length; i++) {
+			long load = partitions[i].queuedCostNanos();
+			if (load < lowest) {
+				lowest = load;
+				chosen = i;
+			}
+		}
+		return chosen;
+	}
+}
@@ -0,0 +1,63 @@
+package rtsj.sandbox.aperiodic_service.multi_server;
+
+import rtsj.sandbox.aperiodic_service.common.InterruptibleAperiodicEvent;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Entry point of the multi-server aperiodic service: routes each submitted
+ * event to one of the partitions.
+ * 
+ * Thread-safe as long as the router is. Does not allocate or block.
+ * 
+ */
+public class PartitionedEventDispatcher {
+
+	private final ServerPartition[] partitions;
+	private final EventRouter router;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) partitions.length > 0
+	 * 
+	 * @param partitions
+	 * @param router
+	 */
+	public PartitionedEventDispatcher(ServerPartition[] partitions, EventRouter router) {
+		assert partitions.length > 0 : "at least one partition is required";
+		this.partitions = partitions.clone();
+		this.router = router;
+	}
+
+	public void start() {
+		for (ServerPartition partition : partitions) {
+			partition.start();
+		}
+	}
+
+	/**
+	 * @param event
+	 * @return false if the chosen partition's queue is full
+	 */
+	public boolean dispatch(InterruptibleAperiodicEvent event) {
+		return partitions[router.route(event, partitions)].submit(event);
+	}
+
+	public int partitionCount() {
+		return partitions.length;
+	}
+}
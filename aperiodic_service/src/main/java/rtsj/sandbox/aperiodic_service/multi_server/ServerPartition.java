@@ -0,0 +1,146 @@
+package rtsj.sandbox.aperiodic_service.multi_server;
+
+import java.util.BitSet;
+
+import javax.realtime.Affinity;
+import javax.realtime.AsyncEvent;
+import javax.realtime.RelativeTime;
+import javax.realtime.memory.LTMemory;
+import javax.realtime.memory.ScopedMemory;
+
+import rtsj.sandbox.aperiodic_service.common.BoundedDeadlineEventQueue;
+import rtsj.sandbox.aperiodic_service.common.EventQueue;
+import rtsj.sandbox.aperiodic_service.common.EventSubmitter;
+import rtsj.sandbox.aperiodic_service.common.InterruptibleAperiodicEvent;
+import rtsj.sandbox.aperiodic_service.deferrable_server.DeferrableServerBudgetReplenisher;
+import rtsj.sandbox.aperiodic_service.deferrable_server.DeferrableServerEventHandler;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * One partition of a multi-server aperiodic service: a Deferrable Server (with
+ * its own queue, budget and replenisher) pinned to a single processor.
+ * 
+ * Partitions share nothing, so each one can be analysed as a uniprocessor
+ * system together with the periodic tasks pinned to the same processor (see
+ * ResponseTimeAnalysis), and aperiodic capacity grows with the number of
+ * processors.
+ * 
+ */
+public class ServerPartition {
+
+	private static final int SCOPED_MEM_SIZE = 2048;
+
+	private final int processor;
+	private final BoundedDeadlineEventQueue<InterruptibleAperiodicEvent> queue;
+	private final EventSubmitter<InterruptibleAperiodicEvent> submitter;
+	private final DeferrableServerEventHandler handler;
+	private final DeferrableServerBudgetReplenisher replenisher;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) processor is one of Affinity.getAvailableProcessors()
+	 * 
+	 * 2) replenisherPriority > priority > backgroundPriority
+	 * 
+	 * @param processor
+	 * @param budget
+	 * @param period
+	 * @param priority
+	 * @param backgroundPriority
+	 * @param replenisherPriority
+	 * @param queueCapacity
+	 */
+	public ServerPartition(int processor, RelativeTime budget, RelativeTime period, int priority,
+			int backgroundPriority, int replenisherPriority, int queueCapacity) {
+		assert replenisherPriority > priority : "replenisherPriority must be higher than priority";
+		this.processor = processor;
+		queue = new BoundedDeadlineEventQueue<InterruptibleAperiodicEvent>(queueCapacity);
+		AsyncEvent event = new AsyncEvent();
+		submitter = new EventSubmitter<InterruptibleAperiodicEvent>(queue, event);
+		ScopedMemory mem = new LTMemory(SCOPED_MEM_SIZE);
+		handler = new DeferrableServerEventHandler(queue, submitter, budget, priority, backgroundPriority, mem,
+				false);
+		event.addHandler(handler);
+		replenisher = new DeferrableServerBudgetReplenisher(period, replenisherPriority, handler, event, mem);
+	}
+
+	/**
+	 * Lets this partition's server steal restartable events queued at the other
+	 * partitions when it is idle but still has budget (see
+	 * DeferrableServerEventHandler.setStealingPeers()).
+	 * 
+	 * Partitions then no longer share nothing: stolen events may be processed on a
+	 * different processor to the one they were routed to, although each server
+	 * still never exceeds its own budget.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) called before start()
+	 * 
+	 * @param partitions all partitions, including this one
+	 */
+	@SuppressWarnings("unchecked")
+	public void stealFrom(ServerPartition[] partitions) {
+		EventQueue<InterruptibleAperiodicEvent>[] peers = new EventQueue[partitions.length - 1];
+		int next = 0;
+		for (int i = 0; i < partitions.length; i++) {
+			if (partitions[i] != this) {
+				peers[next++] = partitions[i].queue;
+			}
+		}
+		handler.setStealingPeers(peers);
+	}
+
+	/**
+	 * Pins the server's handler and replenisher to the partition's processor and
+	 * starts the replenisher.
+	 */
+	public void start() {
+		BitSet processors = new BitSet();
+		processors.set(processor);
+		Affinity affinity = Affinity.generate(processors);
+		Affinity.set(affinity, handler);
+		Affinity.set(affinity, replenisher);
+		replenisher.start();
+	}
+
+	/**
+	 * @param event
+	 * @return false if the partition's queue is full
+	 */
+	public boolean submit(InterruptibleAperiodicEvent event) {
+		return submitter.submit(event);
+	}
+
+	/**
+	 * Remaining cost of the events waiting in this partition.
+	 * 
+	 * @return
+	 */
+	public long queuedCostNanos() {
+		return queue.queuedCostNanos();
+	}
+
+	public int processor() {
+		return processor;
+	}
+
+	public DeferrableServerEventHandler handler() {
+		return handler;
+	}
+}
@@ -0,0 +1,129 @@
+package rtsj.sandbox.aperiodic_service.polling_server;
+
+import java.util.Random;
+
+import javax.realtime.PriorityScheduler;
+import javax.realtime.RelativeTime;
+
+import rtsj.sandbox.aperiodic_service.analysis.ResponseTimeAnalysis;
+import rtsj.sandbox.aperiodic_service.analysis.ResponseTimeAnalysis.TaskKind;
+import rtsj.sandbox.aperiodic_service.common.AdmissionDecision;
+import rtsj.sandbox.aperiodic_service.common.AperiodicEventPool;
+import rtsj.sandbox.aperiodic_service.common.AperiodicEventPriorityQueue;
+import rtsj.sandbox.aperiodic_service.common.DeadlineAdmissionControl;
+import rtsj.sandbox.aperiodic_service.common.EventOrdering;
+import rtsj.sandbox.aperiodic_service.common.EventShedder;
+import rtsj.sandbox.aperiodic_service.common.InterruptibleAperiodicEvent;
+import rtsj.sandbox.aperiodic_service.common.PeriodicTask;
+import rtsj.sandbox.aperiodic_service.common.RestartableAperiodicEvent;
+import rtsj.sandbox.common.EventLogWriter;
+import rtsj.sandbox.common.PreciseWait;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * NOTE: Values for all components are largely random.
+ * 
+ * 
+ */
+public class App {
+
+	private static final int EVENT_POOL_CAPACITY = 64;
+	private static final RelativeTime EVENT_COST = new RelativeTime(20, 0);
+
+	public static void main(String... args) {
+
+		// calibrate busy-waiting (the events' and tasks' simulated work) before any
+		// real-time thread starts, rather than in the first event to spin, i.e. in a
+		// server under its budget's timer
+		PreciseWait.calibrate();
+
+		// drains the logs of the real-time threads to stdout at the lowest priority
+		new EventLogWriter(PriorityScheduler.instance().getMinPriority(), new RelativeTime(100, 0)).start();
+
+		int maxPriority = PriorityScheduler.instance().getMaxPriority();
+
+		PeriodicTask t1 = new PeriodicTask(maxPriority - 1, 40, new RelativeTime(10, 0), "Thread#1");
+		// higher period, lower priority
+		PeriodicTask t2 = new PeriodicTask(maxPriority - 2, 60, new RelativeTime(20, 0), "Thread#2");
+		RelativeTime serverPeriod = new RelativeTime(50, 0);
+		RelativeTime serverBudget = new RelativeTime(10, 0);
+
+		// refuse to start unless every task, including the server, meets its deadline
+		ResponseTimeAnalysis rta = new ResponseTimeAnalysis(3);
+		rta.addPeriodicTask(t1);
+		rta.addPeriodicTask(t2);
+		int serverTask = rta.addTask(TaskKind.POLLING_SERVER, maxPriority, serverPeriod, serverBudget);
+		rta.checkSchedulable();
+
+		t1.start();
+		t2.start();
+
+		// serve events EDF and only queue those the server can still complete before
+		// their deadline. All events have the same relative deadline, so EDF serves
+		// them in creation order, which the admission guarantee relies on
+		DeadlineAdmissionControl<InterruptibleAperiodicEvent> admission = new DeadlineAdmissionControl<InterruptibleAperiodicEvent>(
+				serverBudget, serverPeriod, EVENT_COST);
+		AperiodicEventPriorityQueue<InterruptibleAperiodicEvent> q = new AperiodicEventPriorityQueue<InterruptibleAperiodicEvent>(
+				10, EventOrdering.EDF, admission);
+
+		// assigning polling-server highest priority as we can't guarantee ties will be
+		// broken in favour of the server
+		// events which can no longer make their deadline (e.g. after waiting behind
+		// a burst) are dropped rather than run late
+		PollingServer ps = new PollingServer(maxPriority, serverPeriod, serverBudget, q, EventShedder.dropping());
+		// later budget/period changes are only accepted if the task-set stays
+		// schedulable
+		ps.modeChange().guardWith(rta, serverTask);
+		// and admission follows them
+		ps.modeChange().alsoApplyTo((budgetNanos, periodNanos, priority) -> admission.changeServerMode(budgetNanos,
+				periodNanos));
+		ps.start();
+
+		beginEventGeneration(q);
+	}
+
+	private static void beginEventGeneration(AperiodicEventPriorityQueue<InterruptibleAperiodicEvent> q) {
+		Random r = new Random();
+		final int maxDelay = 5_000;
+		int nextDelay = 0;
+		// events go back to the pool once processed (or rejected)
+		AperiodicEventPool pool = new AperiodicEventPool(EVENT_POOL_CAPACITY);
+
+		// Event properties
+		RelativeTime deadline = new RelativeTime(200, 0);
+
+		while (true) {
+			nextDelay = r.nextInt(maxDelay);
+
+			RestartableAperiodicEvent event = pool.acquire(EVENT_COST, deadline);
+			if (event == null) {
+				System.out.println("Event pool exhausted, event dropped");
+			} else {
+				AdmissionDecision decision = q.submit(event);
+				if (!decision.isAccepted()) {
+					System.out.println("Event " + event.id() + " rejected: " + decision);
+					event.retire();
+				}
+			}
+			try {
+				Thread.sleep(nextDelay);
+			} catch (InterruptedException e) {
+				// Ignore
+			}
+		}
+	}
+}
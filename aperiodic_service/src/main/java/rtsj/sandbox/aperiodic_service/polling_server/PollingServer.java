@@ -0,0 +1,241 @@
+package rtsj.sandbox.aperiodic_service.polling_server;
+
+import javax.realtime.AbsoluteTime;
+import javax.realtime.Clock;
+import javax.realtime.PeriodicParameters;
+import javax.realtime.PriorityParameters;
+import javax.realtime.RealtimeThread;
+import javax.realtime.RelativeTime;
+import javax.realtime.Timed;
+import javax.realtime.memory.LTMemory;
+import javax.realtime.memory.ScopedMemory;
+
+import rtsj.sandbox.aperiodic_service.analysis.ServerModeChange;
+import rtsj.sandbox.aperiodic_service.common.EventQueue;
+import rtsj.sandbox.aperiodic_service.common.EventShedder;
+import rtsj.sandbox.aperiodic_service.common.InterruptibleAperiodicEvent;
+import rtsj.sandbox.aperiodic_service.common.ServerMetrics;
+import rtsj.sandbox.common.EventLog;
+import rtsj.sandbox.common.LogCode;
+import rtsj.sandbox.common.ExecutionBudget;
+import rtsj.sandbox.common.ExecutionTimeSource;
+import rtsj.sandbox.common.TimeUtils;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Implements the Polling-Server algorithm for aperiodic service.
+ * 
+ * NOTE: Has no background priority, so cannot serve demoted events (see
+ * EventShedder) without spending its budget on them; it does not accept a
+ * demoting shedder.
+ * 
+ * INVARIANTS:
+ * 
+ * 1) (budget.remaining() >= 0) && (budget.remaining() <= budget.total())
+ * 
+ */
+public class PollingServer extends RealtimeThread {
+
+	private static final int SCOPED_MEM_SIZE = 10_000_000;
+	private static final int LOG_CAPACITY = 256;
+
+	private final Clock clk;
+	private final Timed timed;
+	private final EventQueue<InterruptibleAperiodicEvent> eventQueue;
+	// These values may be modified from within scoped memory (through the set*()
+	// methods), hence it's a good idea if all assignments are made here and are
+	// final.
+	private final AbsoluteTime eventProcessingStart;
+	// budget in RTSJ time, only updated when passed to the Timed object
+	private final RelativeTime timeout;
+
+	private final ExecutionBudget budget;
+	// what each run of an event is charged from
+	private final ExecutionTimeSource executionTime;
+	// null if infeasible events are processed anyway
+	private final EventShedder shedder;
+	private final ScopedMemory mem;
+	private final ServerMetrics metrics;
+	private final ServerModeChange modeChange;
+	private final ServerModeChange.Target modeTarget;
+	// the server's period, only updated on a mode change
+	private final RelativeTime period;
+	private final EventLog log;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) budget <= period
+	 * 
+	 * 2) priority >= 0
+	 * 
+	 */
+	public PollingServer(int priority, RelativeTime period, RelativeTime budget,
+			EventQueue<InterruptibleAperiodicEvent> eventQueue) {
+		this(priority, period, budget, eventQueue, ExecutionTimeSource.threadCpuTimeOrWallClock(), null);
+	}
+
+	public PollingServer(int priority, RelativeTime period, RelativeTime budget,
+			EventQueue<InterruptibleAperiodicEvent> eventQueue, EventShedder shedder) {
+		this(priority, period, budget, eventQueue, ExecutionTimeSource.threadCpuTimeOrWallClock(), shedder);
+	}
+
+	/**
+	 * @param priority
+	 * @param period
+	 * @param budget
+	 * @param eventQueue
+	 * @param executionTime source of the execution time charged against the
+	 *                      budget
+	 * @param shedder       sheds events which can no longer meet their deadline,
+	 *                      null to process them anyway
+	 */
+	@SuppressWarnings("unchecked")
+	public PollingServer(int priority, RelativeTime period, RelativeTime budget,
+			EventQueue<InterruptibleAperiodicEvent> eventQueue, ExecutionTimeSource executionTime,
+			EventShedder shedder) {
+		assert period.compareTo(budget) >= 0 : "period must not be less than capacity";
+		assert priority >= 0 : "priority must not be negative";
+		assert shedder == null
+				|| shedder.policy() != EventShedder.Policy.DEMOTE : "a polling server cannot serve demoted events";
+		clk = Clock.getRealtimeClock();
+		setSchedulingParameters(new PriorityParameters(priority));
+		this.period = new RelativeTime(period);
+		setReleaseParameters(new PeriodicParameters(this.period));
+		setName("PollingServer");
+		eventProcessingStart = new AbsoluteTime();
+		this.budget = new ExecutionBudget(budget);
+		this.executionTime = executionTime;
+		this.shedder = shedder;
+		timeout = new RelativeTime(budget);
+		timed = new Timed(timeout);
+		this.eventQueue = eventQueue;
+		mem = new LTMemory(SCOPED_MEM_SIZE);
+		metrics = new ServerMetrics();
+		log = EventLog.create(getName(), LOG_CAPACITY);
+		modeChange = new ServerModeChange();
+		modeTarget = this::applyMode;
+	}
+
+	public ServerMetrics metrics() {
+		return metrics;
+	}
+
+	/**
+	 * Through which the server's budget, period and priority can be changed
+	 * whilst it runs. A change takes effect at the end of the current period.
+	 * 
+	 * @return
+	 */
+	public ServerModeChange modeChange() {
+		return modeChange;
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			mem.enter(() -> {
+				for (InterruptibleAperiodicEvent event = nextEvent(); event != null; event = nextEvent()) {
+					clk.getTime(eventProcessingStart);
+					metrics.eventStarting(event, TimeUtils.toNanos(eventProcessingStart));
+					event.attachLog(log);
+					long executionStart = executionTime.currentThreadNanos();
+					timed.doInterruptible(event);
+					adjustRemainingBudget(event, executionTime.currentThreadNanos() - executionStart);
+					// re-push event if interrupted and it can restart so that event is processed in
+					// subsequent runs
+					if (event.wasInterrupted() && event.canRestart()) {
+						if (isFeasible(event)) {
+							event.reset();
+							requeue(event);
+						} else {
+							shedder.shed(event, log);
+						}
+					} else {
+						// done with - completed or cannot restart
+						event.retire();
+					}
+				}
+
+			});
+			resetForNextPeriod();
+			waitForNextPeriod();
+		}
+	}
+
+	/**
+	 * Next event to process, shedding any infeasible ones on the way.
+	 * 
+	 * NOTE: The budget is checked _before_ popping, so that an event is never
+	 * taken out of the queue only to find there is no budget left to process it.
+	 * 
+	 * @return null if the budget is exhausted or there is nothing to process
+	 */
+	private InterruptibleAperiodicEvent nextEvent() {
+		while (!budget.isExhausted()) {
+			InterruptibleAperiodicEvent event = eventQueue.pop();
+			if (event == null) {
+				return null;
+			}
+			if (isFeasible(event)) {
+				return event;
+			}
+			shedder.shed(event, log);
+		}
+		return null;
+	}
+
+	// the queue may have filled up with new arrivals whilst the event ran
+	private void requeue(InterruptibleAperiodicEvent event) {
+		if (eventQueue.push(event)) {
+			metrics.eventRestarted();
+		} else {
+			log.log(LogCode.EVENT_REQUEUE_REJECTED, event.id());
+			event.retire();
+		}
+	}
+
+	private boolean isFeasible(InterruptibleAperiodicEvent event) {
+		return shedder == null || shedder.isFeasible(event, TimeUtils.toNanos(clk.getTime(eventProcessingStart)));
+	}
+
+	private void adjustRemainingBudget(InterruptibleAperiodicEvent event, long processingCost) {
+		metrics.eventRan(event, processingCost);
+		// consume() maintains the class invariant
+		budget.consume(processingCost);
+		// adjust new interrupt timeout
+		timed.resetTime(budget.remaining(timeout));
+	}
+
+	private void resetForNextPeriod() {
+		metrics.periodEnded(budget.total() - budget.remaining(), budget.total());
+		// period boundary - the safe point for a mode change, as the budget is about to
+		// be refilled anyway
+		modeChange.applyPending(modeTarget);
+		// refill budget and adjust new interruption timeout
+		budget.replenish();
+		timed.resetTime(budget.remaining(timeout));
+	}
+
+	private void applyMode(long budgetNanos, long periodNanos, int priority) {
+		budget.setTotal(budgetNanos);
+		period.set(periodNanos / TimeUtils.NANOS_PER_MILLI, (int) (periodNanos % TimeUtils.NANOS_PER_MILLI));
+		// takes effect from the next release
+		((PeriodicParameters) getReleaseParameters()).setPeriod(period);
+		((PriorityParameters) getSchedulingParameters()).setPriority(priority);
+	}
+}
@@ -0,0 +1,120 @@
+package rtsj.sandbox.aperiodic_service.slack_stealer;
+
+import java.util.Random;
+
+import javax.realtime.AbsoluteTime;
+import javax.realtime.AsyncEvent;
+import javax.realtime.Clock;
+import javax.realtime.PriorityScheduler;
+import javax.realtime.RelativeTime;
+import javax.realtime.memory.LTMemory;
+import javax.realtime.memory.ScopedMemory;
+
+import rtsj.sandbox.aperiodic_service.common.AperiodicEventPool;
+import rtsj.sandbox.aperiodic_service.common.BoundedDeadlineEventQueue;
+import rtsj.sandbox.aperiodic_service.common.InterruptibleAperiodicEvent;
+import rtsj.sandbox.aperiodic_service.common.PeriodicTask;
+import rtsj.sandbox.aperiodic_service.common.RestartableAperiodicEvent;
+import rtsj.sandbox.common.EventLogWriter;
+import rtsj.sandbox.common.PreciseWait;
+import rtsj.sandbox.common.TimeUtils;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * NOTE: Values for all components are largely random.
+ * 
+ */
+
+public class App {
+
+	private static final int EVENT_QUEUE_CAPACITY = 32;
+	// queued events plus the one being processed
+	private static final int EVENT_POOL_CAPACITY = EVENT_QUEUE_CAPACITY + 1;
+	private static final long RELEASE_DELAY_MILLIS = 100;
+
+	public static void main(String... args) {
+
+		// calibrate busy-waiting (the events' and tasks' simulated work) before any
+		// real-time thread starts, rather than in the first event to spin, i.e. in a
+		// server under its budget's timer
+		PreciseWait.calibrate();
+
+		// drains the logs of the real-time threads to stdout at the lowest priority
+		new EventLogWriter(PriorityScheduler.instance().getMinPriority(), new RelativeTime(100, 0)).start();
+
+		int maxPriority = PriorityScheduler.instance().getMaxPriority();
+
+		// The task-set
+		PeriodicTask t1 = new PeriodicTask(maxPriority - 1, 40, new RelativeTime(10, 0), "Thread#1");
+		// higher period, lower priority
+		PeriodicTask t2 = new PeriodicTask(maxPriority - 2, 60, new RelativeTime(20, 0), "Thread#2");
+
+		SlackCalculator slack = new SlackCalculator(2);
+		slack.register(t1);
+		slack.register(t2);
+		// release the task-set synchronously, as the slack computation assumes, a
+		// little in the future so that both tasks have been started by then
+		AbsoluteTime release = Clock.getRealtimeClock().getTime().add(RELEASE_DELAY_MILLIS, 0);
+		slack.start(TimeUtils.toNanos(release));
+		t1.startAt(release);
+		t2.startAt(release);
+
+		// preallocated, lock-free so the generator never contends with the handler
+		BoundedDeadlineEventQueue<InterruptibleAperiodicEvent> q = new BoundedDeadlineEventQueue<InterruptibleAperiodicEvent>(
+				EVENT_QUEUE_CAPACITY);
+		AsyncEvent apeEvent = new AsyncEvent();
+
+		// the stealer must run above every task in the task-set
+		ScopedMemory mem = new LTMemory(2048);
+		SlackStealingEventHandler eventHandler = new SlackStealingEventHandler(q, slack, maxPriority, mem, false);
+		apeEvent.addHandler(eventHandler);
+		beginEventGeneration(q, apeEvent);
+	}
+
+	private static void beginEventGeneration(BoundedDeadlineEventQueue<InterruptibleAperiodicEvent> q,
+			AsyncEvent apeEvent) {
+		Random r = new Random();
+		final int maxDelay = 5_000;
+		int nextDelay = 0;
+		// events go back to the pool once processed (or rejected)
+		AperiodicEventPool pool = new AperiodicEventPool(EVENT_POOL_CAPACITY);
+
+		// Event properties
+		RelativeTime cost = new RelativeTime(150, 0);
+		RelativeTime deadline = new RelativeTime(200, 0);
+
+		while (true) {
+			nextDelay = r.nextInt(maxDelay);
+
+			RestartableAperiodicEvent event = pool.acquire(cost, deadline);
+			if (event == null) {
+				System.out.println("Event pool exhausted, event dropped");
+			} else if (q.push(event)) {
+				apeEvent.fire();
+			} else {
+				System.out.println(
+						"Event " + event.id() + " rejected, queue full (total rejected: " + q.rejectedCount() + ")");
+				event.retire();
+			}
+			try {
+				Thread.sleep(nextDelay);
+			} catch (InterruptedException e) {
+				// Ignore
+			}
+		}
+	}
+}
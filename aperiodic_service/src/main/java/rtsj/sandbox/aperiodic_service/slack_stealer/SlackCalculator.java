@@ -0,0 +1,209 @@
+package rtsj.sandbox.aperiodic_service.slack_stealer;
+
+import rtsj.sandbox.aperiodic_service.analysis.ResponseTimeAnalysis;
+import rtsj.sandbox.aperiodic_service.common.PeriodicTask;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Keeps track of how much processor time can be stolen from the periodic
+ * task-set without any task missing its deadline.
+ * 
+ * Each registered task (i) is given a per-job slack counter equal to the
+ * largest amount of extra interference (Si) with which it still meets its
+ * (implicit) deadline, i.e. the largest Si for which the response time fixed
+ * point (see ResponseTimeAnalysis.responseTimeWithInterference())
+ * 
+ * R = Ci + Si + sum over higher priority tasks (j) of ceil(R / Tj) * Cj
+ * 
+ * stays within Ti. Si is found by a binary search over [0, Ti - Ri], the
+ * response time being monotonic in Si. Note that (Ti - Ri) itself is not the
+ * slack: stolen time can push the task's response past further releases of
+ * higher priority tasks, whose interference then adds to it.
+ * Since the stealer runs above every periodic task, any time it executes
+ * interferes with all of them, so the slack available at any instant is the
+ * minimum of the counters and executing charges every counter. A counter is
+ * restored each time its task releases a new job, and a run which crosses that
+ * release is only charged to the new job for the part which follows it.
+ * 
+ * This is a (pessimistic) static approximation of the exact slack-stealing
+ * algorithm: it never hands out more slack than the task-set can absorb but it
+ * ignores slack created by jobs finishing earlier than their worst case.
+ * 
+ * NOTE: Si assumes the higher priority tasks interfere as from a critical
+ * instant. A higher priority job delayed by earlier stealing can carry its
+ * remaining work into a lower priority job's window on top of that, which Si
+ * does not account for.
+ * 
+ * NOTE: Assumes the task-set is released synchronously at the time given to
+ * start() (see PeriodicTask.startAt()).
+ * 
+ * Not thread-safe.
+ * 
+ */
+public class SlackCalculator {
+
+	private final ResponseTimeAnalysis analysis;
+	private final int[] priorities;
+	private final long[] periods;
+	private final long[] levelSlack;
+	private final long[] remainingSlack;
+	private final long[] nextRelease;
+	private int taskCount;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) maxTasks > 0
+	 * 
+	 * @param maxTasks
+	 */
+	public SlackCalculator(int maxTasks) {
+		assert maxTasks > 0 : "maxTasks must be positive";
+		analysis = new ResponseTimeAnalysis(maxTasks);
+		priorities = new int[maxTasks];
+		periods = new long[maxTasks];
+		levelSlack = new long[maxTasks];
+		remainingSlack = new long[maxTasks];
+		nextRelease = new long[maxTasks];
+	}
+
+	/**
+	 * Must be called for every task in the periodic task-set before start().
+	 * 
+	 * @param task
+	 */
+	public void register(PeriodicTask task) {
+		assert taskCount < priorities.length : "no more than " + priorities.length + " tasks can be registered";
+		// indices in the analysis follow registration order
+		analysis.addPeriodicTask(task);
+		priorities[taskCount] = task.priority();
+		periods[taskCount] = task.periodNanos();
+		taskCount++;
+	}
+
+	/**
+	 * Computes each task's slack and aligns the slack counters with the task-set's
+	 * releases.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) at least one task has been registered
+	 * 
+	 * @param startNanos release time of the task-set
+	 * @throws IllegalStateException if the task-set is not schedulable
+	 */
+	public void start(long startNanos) {
+		assert taskCount > 0 : "no periodic task registered to steal slack from";
+		analysis.analyse();
+		for (int i = 0; i < taskCount; i++) {
+			long responseTime = analysis.responseTime(i);
+			if (responseTime > periods[i]) {
+				throw new IllegalStateException("Periodic task with priority " + priorities[i]
+						+ " misses its deadline - no slack available");
+			}
+			levelSlack[i] = levelSlack(i, periods[i] - responseTime);
+			remainingSlack[i] = levelSlack[i];
+			nextRelease[i] = startNanos + periods[i];
+		}
+	}
+
+	// largest extra interference within [0, upperBound] the task can suffer and
+	// still meet its deadline
+	private long levelSlack(int task, long upperBound) {
+		long low = 0;
+		long high = upperBound;
+		while (low < high) {
+			long candidate = low + (high - low + 1) / 2;
+			if (analysis.responseTimeWithInterference(task, candidate) <= periods[task]) {
+				low = candidate;
+			} else {
+				high = candidate - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * How much can be stolen now without causing a deadline miss?
+	 * 
+	 * @param nowNanos
+	 * @return
+	 */
+	public long available(long nowNanos) {
+		long available = Long.MAX_VALUE;
+		for (int i = 0; i < taskCount; i++) {
+			releaseUpTo(i, nowNanos);
+			if (remainingSlack[i] < available) {
+				available = remainingSlack[i];
+			}
+		}
+		return available;
+	}
+
+	/**
+	 * Charges a run of stolen execution against every task. A task whose job is
+	 * released during the run is only charged, against its new job's counter,
+	 * for the part of the run after that release.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) startNanos <= endNanos
+	 * 
+	 * @param startNanos
+	 * @param endNanos
+	 */
+	public void consume(long startNanos, long endNanos) {
+		assert startNanos <= endNanos : "run must not end before it starts";
+		for (int i = 0; i < taskCount; i++) {
+			releaseUpTo(i, startNanos);
+			long chargedFrom = startNanos;
+			if (releaseUpTo(i, endNanos)) {
+				// the earlier part of the run fell in the previous job's window
+				chargedFrom = nextRelease[i] - periods[i];
+			}
+			long nanos = endNanos - chargedFrom;
+			remainingSlack[i] = (nanos >= remainingSlack[i]) ? 0 : remainingSlack[i] - nanos;
+		}
+	}
+
+	// restores the task's counter if it has released a job since the last call
+	private boolean releaseUpTo(int task, long nowNanos) {
+		if (nowNanos < nextRelease[task]) {
+			return false;
+		}
+		long missed = (nowNanos - nextRelease[task]) / periods[task] + 1;
+		nextRelease[task] += missed * periods[task];
+		remainingSlack[task] = levelSlack[task];
+		return true;
+	}
+
+	/**
+	 * Earliest time at which available() will return a positive value again, i.e.
+	 * when every task whose slack is used up has released its next job.
+	 * 
+	 * @return
+	 */
+	public long nextSlackTime() {
+		long next = Long.MIN_VALUE;
+		for (int i = 0; i < taskCount; i++) {
+			if (remainingSlack[i] == 0 && nextRelease[i] > next) {
+				next = nextRelease[i];
+			}
+		}
+		return next;
+	}
+}
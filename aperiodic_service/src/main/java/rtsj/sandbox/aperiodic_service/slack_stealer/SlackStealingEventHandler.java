@@ -0,0 +1,135 @@
+package rtsj.sandbox.aperiodic_service.slack_stealer;
+
+import javax.realtime.AbsoluteTime;
+import javax.realtime.BoundAsyncEventHandler;
+import javax.realtime.Clock;
+import javax.realtime.MemoryArea;
+import javax.realtime.OneShotTimer;
+import javax.realtime.PriorityParameters;
+import javax.realtime.RelativeTime;
+import javax.realtime.Timed;
+
+import rtsj.sandbox.aperiodic_service.common.EventQueue;
+import rtsj.sandbox.aperiodic_service.common.InterruptibleAperiodicEvent;
+import rtsj.sandbox.common.EventLog;
+import rtsj.sandbox.common.LogCode;
+import rtsj.sandbox.common.TimeUtils;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Serves aperiodic events with slack stolen from the periodic task-set rather
+ * than from a fixed server budget (see SlackCalculator).
+ * 
+ * The handler is released whenever an event arrives and processes events for
+ * as long as there is slack, each event's Timed timeout being the slack
+ * available when it starts. When events are left waiting for slack, a
+ * OneShotTimer releases the handler again at the time slack becomes available.
+ * 
+ * It's priority must be higher than any task in the periodic task-set.
+ * 
+ * NOTE: The slack counters are only touched by the handler's (single) thread,
+ * since both the arrival event and the wake-up timer release this same handler.
+ * 
+ */
+public class SlackStealingEventHandler extends BoundAsyncEventHandler {
+
+	private static final int LOG_CAPACITY = 256;
+
+	private final Timed timed;
+	private final Clock clk;
+	private final OneShotTimer wakeUpTimer;
+
+	// These values may be modified from within scoped memory (through the set*()
+	// methods), hence it's a good idea if all assignments are made in constructor
+	// and are final
+	private final EventQueue<InterruptibleAperiodicEvent> eventQueue;
+	private final SlackCalculator slack;
+	private final RelativeTime timeout;
+	private final AbsoluteTime wakeUpTime;
+	private final AbsoluteTime eventProcessingStart;
+	private final AbsoluteTime eventProcessingEnd;
+	private final EventLog log;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) slack.start() has been called
+	 * 
+	 * @param eventQueue
+	 * @param slack
+	 * @param priority
+	 * @param memoryArea
+	 * @param noHeap
+	 */
+	public SlackStealingEventHandler(EventQueue<InterruptibleAperiodicEvent> eventQueue, SlackCalculator slack,
+			int priority, MemoryArea memoryArea, boolean noHeap) {
+		super(new PriorityParameters(priority), null, null, memoryArea, null, noHeap, null);
+		this.eventQueue = eventQueue;
+		this.slack = slack;
+		timeout = new RelativeTime();
+		timed = new Timed(timeout);
+		wakeUpTime = new AbsoluteTime();
+		eventProcessingStart = new AbsoluteTime();
+		eventProcessingEnd = new AbsoluteTime();
+		log = EventLog.create("SlackStealer", LOG_CAPACITY);
+		wakeUpTimer = new OneShotTimer(wakeUpTime, this);
+		clk = Clock.getRealtimeClock();
+	}
+
+	/**
+	 * NOTE: Runs in memory area passed in the constructor.
+	 */
+	@Override
+	public void handleAsyncEvent() {
+		// driven exclusively by the events queue and slack - clear this for consistency
+		getAndClearPendingFireCount();
+		while (!eventQueue.isEmpty()) {
+			long available = slack.available(TimeUtils.toNanos(clk.getTime(eventProcessingStart)));
+			if (available == 0) {
+				scheduleWakeUp();
+				return;
+			}
+			InterruptibleAperiodicEvent event = eventQueue.pop();
+			timeout.set(available / TimeUtils.NANOS_PER_MILLI, (int) (available % TimeUtils.NANOS_PER_MILLI));
+			timed.resetTime(timeout);
+			event.attachLog(log);
+			timed.doInterruptible(event);
+			clk.getTime(eventProcessingEnd);
+			slack.consume(TimeUtils.toNanos(eventProcessingStart), TimeUtils.toNanos(eventProcessingEnd));
+			if (event.wasInterrupted() && event.canRestart()) {
+				// slack ran out. Re-push so that it is processed once slack is available
+				event.reset();
+				if (!eventQueue.push(event)) {
+					// the queue filled up with new arrivals whilst the event ran
+					log.log(LogCode.EVENT_REQUEUE_REJECTED, event.id());
+					event.retire();
+				}
+			} else {
+				event.retire();
+			}
+		}
+	}
+
+	private void scheduleWakeUp() {
+		long next = slack.nextSlackTime();
+		wakeUpTime.set(next / TimeUtils.NANOS_PER_MILLI, (int) (next % TimeUtils.NANOS_PER_MILLI));
+		wakeUpTimer.reschedule(wakeUpTime);
+		if (!wakeUpTimer.isRunning()) {
+			wakeUpTimer.start();
+		}
+	}
+}
@@ -0,0 +1,326 @@
+package rtsj.sandbox.aperiodic_service.sporadic_server;
+
+import javax.realtime.AbsoluteTime;
+import javax.realtime.AsyncEvent;
+import javax.realtime.BoundAsyncEventHandler;
+import javax.realtime.Clock;
+import javax.realtime.MemoryArea;
+import javax.realtime.PriorityParameters;
+import javax.realtime.RealtimeThread;
+import javax.realtime.RelativeTime;
+import javax.realtime.Timed;
+
+import rtsj.sandbox.aperiodic_service.common.EventQueue;
+import rtsj.sandbox.aperiodic_service.common.InterruptibleAperiodicEvent;
+import rtsj.sandbox.common.EventLog;
+import rtsj.sandbox.common.LogCode;
+import rtsj.sandbox.common.ExecutionBudget;
+import rtsj.sandbox.common.TimeUtils;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Together with SporadicServerReplenishment forms a logical implementation of
+ * the Sporadic-Server algorithm for aperiodic service.
+ * 
+ * Unlike the Deferrable Server, whose budget is topped-up at fixed period
+ * boundaries, the budget consumed by this server is only given back one period
+ * after the server became active. Each activation (i.e. each run of this
+ * handler that consumes budget) is a "chunk": when the handler runs out of
+ * events or budget, the budget consumed during the chunk is scheduled to be
+ * replenished at (chunk start + period). Budget replenished whilst a chunk is
+ * active closes that chunk (scheduling what it has consumed so far) and starts
+ * a new one at the replenishment time, as the replenished budget may only be
+ * used again one period after it became available. The server therefore never
+ * executes for more than its budget within any window of one period and, for
+ * the purposes of schedulability analysis, behaves exactly like a periodic
+ * task with the same budget and period - there is no back-to-back execution
+ * penalty.
+ * 
+ * Replenishments are carried out by a fixed pool of SporadicServerReplenishment
+ * handlers, each driven by its own OneShotTimer. A chunk is only started when
+ * a replenishment is free to close it with; otherwise the handler waits for
+ * the next replenishment to fall due (which releases it again). Every chunk
+ * therefore gets its own replenishment at its own (start + period) - budget is
+ * never merged into an earlier replenishment, which would return it early.
+ * 
+ * In order for the schedulability analysis to be correct under RM, it's
+ * priority must be that of a periodic task with the same period (see
+ * DeferrableServerEventHandler for the note on priority ties). The
+ * replenishments' priority must be higher than that given to the handler.
+ * 
+ * INVARIANTS:
+ * 
+ * 1) (budget.remaining() >= 0) && (budget.remaining() <= budget.total())
+ * 
+ * 2) (budget.remaining() + pending replenishment amounts + consumed in current
+ * chunk) == budget.total()
+ * 
+ */
+public class SporadicServerEventHandler extends BoundAsyncEventHandler {
+
+	private static final int DEFAULT_MAX_PENDING_REPLENISHMENTS = 8;
+	private static final int LOG_CAPACITY = 256;
+
+	private final Timed timed;
+	private final Clock clk;
+	// volatile since it is assigned in a non-synchronised manner
+	private volatile Thread handlerThread;
+
+	// These values may be modified from within scoped memory (through the set*()
+	// methods), hence it's a good idea if all assignments are made in constructor
+	// and are final
+	private final EventQueue<InterruptibleAperiodicEvent> eventQueue;
+	private final ExecutionBudget budget;
+	// budget in RTSJ time, only updated when passed to the Timed object
+	private final RelativeTime timeout;
+	private final RelativeTime period;
+	private final EventLog log;
+
+	private final AbsoluteTime eventProcessingStart;
+	private final AbsoluteTime eventProcessingEnd;
+	private final AbsoluteTime chunkStart;
+	// only used by the replenishments, under the lock
+	private final AbsoluteTime replenishmentTime;
+
+	// replenishments fall due in the order they are scheduled, so the pending
+	// ones are the run of slots ending just before nextReplenishment
+	private final SporadicServerReplenishment[] replenishments;
+	private int nextReplenishment;
+
+	private boolean chunkActive;
+	private long chunkConsumed;
+	private boolean processing;
+
+	public SporadicServerEventHandler(EventQueue<InterruptibleAperiodicEvent> eventQueue, RelativeTime budget,
+			RelativeTime period, int priority, int replenishmentPriority, AsyncEvent event, MemoryArea memoryArea,
+			boolean noHeap) {
+		this(eventQueue, budget, period, priority, replenishmentPriority, event, memoryArea, noHeap,
+				DEFAULT_MAX_PENDING_REPLENISHMENTS);
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) budget <= period
+	 * 
+	 * 2) replenishmentPriority > priority
+	 * 
+	 * 3) maxPendingReplenishments > 0
+	 * 
+	 * @param eventQueue
+	 * @param budget
+	 * @param period
+	 * @param priority
+	 * @param replenishmentPriority
+	 * @param event                    fired after each replenishment so that
+	 *                                 events waiting for budget are processed
+	 * @param memoryArea
+	 * @param noHeap
+	 * @param maxPendingReplenishments
+	 */
+	@SuppressWarnings("unchecked")
+	public SporadicServerEventHandler(EventQueue<InterruptibleAperiodicEvent> eventQueue, RelativeTime budget,
+			RelativeTime period, int priority, int replenishmentPriority, AsyncEvent event, MemoryArea memoryArea,
+			boolean noHeap, int maxPendingReplenishments) {
+		super(new PriorityParameters(priority), null, null, memoryArea, null, noHeap, null);
+		assert period.compareTo(budget) >= 0 : "period must not be less than budget";
+		assert replenishmentPriority > priority : "replenishmentPriority must be higher than priority";
+		assert maxPendingReplenishments > 0 : "maxPendingReplenishments must be positive";
+		this.eventQueue = eventQueue;
+
+		// start with a full budget
+		this.budget = new ExecutionBudget(budget);
+		this.timeout = new RelativeTime(budget);
+		this.period = new RelativeTime(period);
+		timed = new Timed(timeout);
+
+		this.eventProcessingStart = new AbsoluteTime();
+		this.eventProcessingEnd = new AbsoluteTime();
+		this.chunkStart = new AbsoluteTime();
+		this.replenishmentTime = new AbsoluteTime();
+		this.log = EventLog.create("SporadicServer", LOG_CAPACITY);
+
+		replenishments = new SporadicServerReplenishment[maxPendingReplenishments];
+		for (int i = 0; i < replenishments.length; i++) {
+			replenishments[i] = new SporadicServerReplenishment(replenishmentPriority, this, event);
+		}
+		nextReplenishment = 0;
+
+		clk = Clock.getRealtimeClock();
+		assertClassInvariants();
+	}
+
+	/**
+	 * As in DeferrableServerEventHandler, a replenishment arriving while an event
+	 * is being processed interrupts the handler thread so that the _same_ event is
+	 * restarted with a timeout covering the replenished budget. The restarted run
+	 * belongs to the new chunk started by the replenishment.
+	 * 
+	 * NOTE: Runs in memory area passed in the constructor.
+	 */
+	@Override
+	public void handleAsyncEvent() {
+		try {
+			// stash handling thread in a variable so that replenishments can interrupt
+			// it. As this is a BoundAsyncEventHandler the variable will always get assigned
+			// to the same thread
+			handlerThread = RealtimeThread.currentRealtimeThread();
+			// pending fire-count is not important here as this handler is driven
+			// exclusively by the events queue - clear this for consistency
+			getAndClearPendingFireCount();
+			while (canProcess()) {
+				InterruptibleAperiodicEvent event = eventQueue.pop();
+				runAndAdjustRemainingBudget(event);
+				if (event.wasGenericInterrupted()) {
+					// interrupted by a replenishment. With budget now replenished, try running the
+					// _same_ event to completion or until budget is depleted
+					runAndAdjustRemainingBudget(event);
+				}
+				if (event.wasInterrupted() && event.canRestart()) {
+					// interrupted by budget-depletion. Re-push so that it is processed once budget
+					// has been replenished
+					event.reset();
+					if (!eventQueue.push(event)) {
+						// the queue filled up with new arrivals whilst the event ran
+						log.log(LogCode.EVENT_REQUEUE_REJECTED, event.id());
+						event.retire();
+					}
+				} else {
+					event.retire();
+				}
+			}
+			endChunk();
+		} finally {
+			// clear any pending interrupt set by a replenishment but didn't cause an event
+			// interrupt (i.e. replenishment took place outside doInterruptible())
+			RealtimeThread.interrupted();
+		}
+	}
+
+	/**
+	 * Called by the SporadicServerReplenishment handlers when their timer fires.
+	 * 
+	 * @param replenishment
+	 */
+	synchronized void replenish(SporadicServerReplenishment replenishment) {
+		long amount = replenishment.amount;
+		replenishment.amount = 0;
+		replenishment.pending = false;
+		if (chunkActive) {
+			clk.getTime(replenishmentTime);
+			if (processing) {
+				// charge the run so far to the chunk being closed, the rest of the run is
+				// charged to the new chunk by adjustForNextRun()
+				chargeTo(replenishmentTime);
+				eventProcessingStart.set(replenishmentTime.getMilliseconds(), replenishmentTime.getNanoseconds());
+			}
+			scheduleChunkReplenishment();
+			chunkStart.set(replenishmentTime.getMilliseconds(), replenishmentTime.getNanoseconds());
+		}
+		budget.replenish(amount);
+		timed.resetTime(budget.remaining(timeout));
+		if (processing && handlerThread != null) {
+			// interrupt status for thread is cleared in event (when interruptAction() in
+			// RestartableAperiodicEvent returns) or when this handler completes a run
+			handlerThread.interrupt();
+		}
+		assertClassInvariants();
+	}
+
+	/**
+	 * A new chunk needs a free replenishment to be closed with.
+	 * 
+	 * @return
+	 */
+	private synchronized boolean canProcess() {
+		return !eventQueue.isEmpty() && !budget.isExhausted()
+				&& (chunkActive || !replenishments[nextReplenishment].pending);
+	}
+
+	private void runAndAdjustRemainingBudget(InterruptibleAperiodicEvent event) {
+		startChunkIfIdle();
+		event.attachLog(log);
+		timed.doInterruptible(event);
+		clk.getTime(eventProcessingEnd);
+		adjustForNextRun();
+	}
+
+	private synchronized void startChunkIfIdle() {
+		// under the lock as a replenishment may move it forward (see replenish())
+		clk.getTime(eventProcessingStart);
+		processing = true;
+		if (!chunkActive) {
+			assert !replenishments[nextReplenishment].pending : "no replenishment free to close the chunk with";
+			chunkActive = true;
+			chunkConsumed = 0;
+			chunkStart.set(eventProcessingStart.getMilliseconds(), eventProcessingStart.getNanoseconds());
+		}
+	}
+
+	private synchronized void adjustForNextRun() {
+		processing = false;
+		chargeTo(eventProcessingEnd);
+		// adjust new interrupt timeout
+		timed.resetTime(budget.remaining(timeout));
+		assertClassInvariants();
+	}
+
+	// charges the current run up to "end" to the budget and the current chunk
+	private void chargeTo(AbsoluteTime end) {
+		// a replenishment may have moved the start past an end read just before it
+		long processingCost = Math.max(0, TimeUtils.toNanos(end) - TimeUtils.toNanos(eventProcessingStart));
+		long before = budget.remaining();
+		budget.consume(processingCost);
+		chunkConsumed += before - budget.remaining();
+	}
+
+	private synchronized void endChunk() {
+		if (!chunkActive) {
+			return;
+		}
+		chunkActive = false;
+		scheduleChunkReplenishment();
+	}
+
+	/**
+	 * Schedules the budget consumed in the current chunk to be replenished one
+	 * period after the chunk started.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) a chunk is active, hence (see canProcess()) replenishments[nextReplenishment]
+	 * is free
+	 */
+	private void scheduleChunkReplenishment() {
+		if (chunkConsumed == 0) {
+			return;
+		}
+		SporadicServerReplenishment replenishment = replenishments[nextReplenishment];
+		assert !replenishment.pending : "replenishment [" + nextReplenishment + "] is still pending";
+		replenishment.schedule(chunkStart, period, chunkConsumed);
+		// chunk start times are monotonic so replenishments fall due in the order they
+		// are scheduled
+		nextReplenishment = (nextReplenishment + 1) % replenishments.length;
+		chunkConsumed = 0;
+	}
+
+	private void assertClassInvariants() {
+		assert (budget.remaining() >= 0 && budget.remaining() <= budget
+				.total()) : "remaining budget must not be negative or more than the total budget [" + budget.total()
+						+ "ns]";
+	}
+}
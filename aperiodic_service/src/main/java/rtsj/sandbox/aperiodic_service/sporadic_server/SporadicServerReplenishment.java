@@ -0,0 +1,76 @@
+package rtsj.sandbox.aperiodic_service.sporadic_server;
+
+import javax.realtime.AbsoluteTime;
+import javax.realtime.AsyncEvent;
+import javax.realtime.AsyncEventHandler;
+import javax.realtime.OneShotTimer;
+import javax.realtime.PriorityParameters;
+import javax.realtime.RelativeTime;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Together with SporadicServerEventHandler forms a logical implementation of
+ * the Sporadic-Server algorithm for aperiodic service.
+ * 
+ * Gives back the budget consumed in one chunk of server execution when its
+ * timer fires. Instances are preallocated (and reused) by the server, each
+ * owning one OneShotTimer and one AbsoluteTime so that scheduling a
+ * replenishment does not allocate.
+ * 
+ * "amount" and "pending" are guarded by the server's lock.
+ * 
+ */
+public class SporadicServerReplenishment extends AsyncEventHandler {
+
+	private final SporadicServerEventHandler server;
+	private final AsyncEvent event;
+	private final OneShotTimer timer;
+	private final AbsoluteTime releaseTime;
+
+	long amount;
+	boolean pending;
+
+	SporadicServerReplenishment(int priority, SporadicServerEventHandler server, AsyncEvent event) {
+		setSchedulingParameters(new PriorityParameters(priority));
+		this.server = server;
+		this.event = event;
+		releaseTime = new AbsoluteTime();
+		timer = new OneShotTimer(releaseTime, this);
+	}
+
+	/**
+	 * Must be called whilst holding the server's lock.
+	 * 
+	 * @param chunkStart
+	 * @param period
+	 * @param amount
+	 */
+	void schedule(AbsoluteTime chunkStart, RelativeTime period, long amount) {
+		this.amount = amount;
+		pending = true;
+		chunkStart.add(period, releaseTime);
+		timer.reschedule(releaseTime);
+		timer.start();
+	}
+
+	@Override
+	public void handleAsyncEvent() {
+		server.replenish(this);
+		// process any events that may be waiting for service due to insufficient budget
+		event.fire();
+	}
+}
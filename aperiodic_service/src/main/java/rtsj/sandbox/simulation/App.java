@@ -0,0 +1,91 @@
+package rtsj.sandbox.simulation;
+
+import java.util.Comparator;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Replays the same aperiodic traffic against the polling, deferrable and
+ * sporadic servers, using the task-set and server parameters of the RTSJ Apps,
+ * and prints each server's responsiveness.
+ * 
+ * Runs on any JVM, no RTSJ implementation required.
+ * 
+ * NOTE: Values for all components are largely random.
+ * 
+ */
+public class App {
+
+	private static final long MS = 1_000_000L;
+	private static final long HOUR = 3_600_000 * MS;
+
+	public static void main(String... args) {
+		long seed = (args.length > 0) ? Long.parseLong(args[0]) : 42;
+		// mean inter-arrival of 100ms, costs of 1-10ms, i.e. about 5.5% load
+		ArrivalTrace trace = new ArrivalTrace(seed, HOUR, 100 * MS, 1 * MS, 10 * MS, 200 * MS, true);
+		System.out.println(trace.size() + " events over 1h, offered load " + trace.utilisation(HOUR));
+
+		report(simulate(new SimulatedPollingServer(3, 50 * MS, 10 * MS, SimulatedServer.EDF), trace));
+		report(simulate(new SimulatedDeferrableServer(3, 50 * MS, 10 * MS, SimulatedServer.EDF), trace));
+		report(simulate(new SimulatedSporadicServer(3, 50 * MS, 10 * MS, SimulatedServer.EDF), trace));
+
+		// queue orderings at about 70% of the server's capacity (20%), where the
+		// choice starts to matter, with relative deadlines of 50-350ms (a fixed
+		// deadline would make EDF and FIFO coincide). With seed 42 EDF is late for
+		// 1115 events, least laxity 1144, SRPT 2550 and FIFO 3336. SRPT only wins
+		// once deadlines are short for the backlog (e.g. 30-200ms: 6313 against
+		// EDF's 7150), and at the cost of starving long events (a worst response
+		// time over twice EDF's)
+		ArrivalTrace heavyTrace = new ArrivalTrace(seed, HOUR, 40 * MS, 1 * MS, 10 * MS, 50 * MS, 350 * MS, true);
+		System.out.println();
+		System.out.println(heavyTrace.size() + " events over 1h, offered load " + heavyTrace.utilisation(HOUR));
+		compareOrderings("EDF", SimulatedServer.EDF, heavyTrace);
+		compareOrderings("SRPT", SimulatedServer.SRPT, heavyTrace);
+		compareOrderings("LEAST_LAXITY", SimulatedServer.LEAST_LAXITY, heavyTrace);
+		compareOrderings("FIFO", SimulatedServer.FIFO, heavyTrace);
+	}
+
+	private static void compareOrderings(String name, Comparator<SimulatedEvent> ordering, ArrivalTrace trace) {
+		SimulatedServer server = new SimulatedDeferrableServer(3, 50 * MS, 10 * MS, ordering);
+		new Simulator(server, trace).addTask(new SimulatedPeriodicTask("Thread#1", 2, 40 * MS, 10 * MS))
+				.addTask(new SimulatedPeriodicTask("Thread#2", 1, 60 * MS, 20 * MS)).run(HOUR);
+		System.out.println(name + ": late " + server.late() + " of " + server.completed() + " completed, pending "
+				+ server.pending() + ", mean response " + server.meanResponseTime() / 1000 + "us, worst "
+				+ server.worstResponseTime() / 1000 + "us");
+	}
+
+	private static Simulator simulate(SimulatedServer server, ArrivalTrace trace) {
+		Simulator simulator = new Simulator(server, trace)
+				.addTask(new SimulatedPeriodicTask("Thread#1", 2, 40 * MS, 10 * MS))
+				.addTask(new SimulatedPeriodicTask("Thread#2", 1, 60 * MS, 20 * MS));
+		long start = System.nanoTime();
+		simulator.run(HOUR);
+		System.out.println(server.name() + " simulated in " + (System.nanoTime() - start) / MS + "ms");
+		return simulator;
+	}
+
+	private static void report(Simulator simulator) {
+		SimulatedServer server = simulator.server();
+		System.out.println("  events: arrived " + server.arrived() + ", completed " + server.completed() + ", late "
+				+ server.late() + ", lost " + server.lost() + ", pending " + server.pending());
+		System.out.println("  response time: mean " + server.meanResponseTime() / 1000 + "us, worst "
+				+ server.worstResponseTime() / 1000 + "us");
+		for (SimulatedPeriodicTask task : simulator.tasks()) {
+			System.out.println("  " + task.name() + ": jobs " + task.jobs() + ", deadline misses "
+					+ task.deadlineMisses() + ", worst response time " + task.worstResponseTime() / 1000 + "us");
+		}
+	}
+}
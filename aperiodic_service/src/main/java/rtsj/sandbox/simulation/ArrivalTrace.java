@@ -0,0 +1,138 @@
+package rtsj.sandbox.simulation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * A reproducible sequence of aperiodic event arrivals: exponentially
+ * distributed inter-arrival times (i.e. Poisson arrivals) and uniformly
+ * distributed costs and relative deadlines, generated from a seed so that
+ * every policy can be replayed against exactly the same traffic.
+ * 
+ * NOTE: With a single relative deadline, deadline order is arrival order, so
+ * EDF and FIFO serve a trace alike. Queue orderings can only be told apart on a
+ * trace with a range of deadlines.
+ * 
+ * Events are created afresh by each replay so that traces can be shared
+ * between simulations.
+ * 
+ */
+public class ArrivalTrace {
+
+	private final long[] arrivals;
+	private final long[] costs;
+	private final long[] relativeDeadlines;
+	private final boolean restartable;
+
+	/**
+	 * A trace in which every event has the same relative deadline.
+	 * 
+	 * @param seed
+	 * @param horizon
+	 * @param meanInterArrival
+	 * @param minCost
+	 * @param maxCost
+	 * @param relativeDeadline
+	 * @param restartable
+	 */
+	public ArrivalTrace(long seed, long horizon, long meanInterArrival, long minCost, long maxCost,
+			long relativeDeadline, boolean restartable) {
+		this(seed, horizon, meanInterArrival, minCost, maxCost, relativeDeadline, relativeDeadline, restartable);
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) horizon > 0, meanInterArrival > 0
+	 * 
+	 * 2) 0 < minCost <= maxCost
+	 * 
+	 * 3) 0 < minDeadline <= maxDeadline
+	 * 
+	 * @param seed
+	 * @param horizon          no arrivals at or after this time
+	 * @param meanInterArrival
+	 * @param minCost
+	 * @param maxCost
+	 * @param minDeadline      shortest relative deadline
+	 * @param maxDeadline      longest relative deadline
+	 * @param restartable
+	 */
+	public ArrivalTrace(long seed, long horizon, long meanInterArrival, long minCost, long maxCost,
+			long minDeadline, long maxDeadline, boolean restartable) {
+		assert horizon > 0 && meanInterArrival > 0 : "horizon and meanInterArrival must be positive";
+		assert minCost > 0 && minCost <= maxCost : "costs must be positive and minCost not more than maxCost";
+		assert minDeadline > 0
+				&& minDeadline <= maxDeadline : "deadlines must be positive and minDeadline not more than maxDeadline";
+		Random r = new Random(seed);
+		int count = 0;
+		long[] times = new long[16];
+		long[] sizes = new long[16];
+		long[] deadlines = new long[16];
+		long t = nextInterArrival(r, meanInterArrival);
+		while (t < horizon) {
+			if (count == times.length) {
+				times = Arrays.copyOf(times, count * 2);
+				sizes = Arrays.copyOf(sizes, count * 2);
+				deadlines = Arrays.copyOf(deadlines, count * 2);
+			}
+			times[count] = t;
+			sizes[count] = minCost + (long) (r.nextDouble() * (maxCost - minCost));
+			// only drawn if there is a range, so that fixed deadline traces are as before
+			deadlines[count] = (minDeadline == maxDeadline) ? minDeadline
+					: minDeadline + (long) (r.nextDouble() * (maxDeadline - minDeadline));
+			count++;
+			t += nextInterArrival(r, meanInterArrival);
+		}
+		this.arrivals = Arrays.copyOf(times, count);
+		this.costs = Arrays.copyOf(sizes, count);
+		this.relativeDeadlines = Arrays.copyOf(deadlines, count);
+		this.restartable = restartable;
+	}
+
+	public int size() {
+		return arrivals.length;
+	}
+
+	long arrival(int i) {
+		return arrivals[i];
+	}
+
+	SimulatedEvent createEvent(int i) {
+		return new SimulatedEvent(arrivals[i], costs[i], relativeDeadlines[i], restartable, i);
+	}
+
+	/**
+	 * Offered load, i.e. total cost over the horizon.
+	 * 
+	 * @param horizon
+	 * @return
+	 */
+	public double utilisation(long horizon) {
+		long total = 0;
+		for (long cost : costs) {
+			total += cost;
+		}
+		return (double) total / horizon;
+	}
+
+	private static long nextInterArrival(Random r, long mean) {
+		// at least 1ns so that time always advances
+		return Math.max(1, (long) (-mean * Math.log(1 - r.nextDouble())));
+	}
+}
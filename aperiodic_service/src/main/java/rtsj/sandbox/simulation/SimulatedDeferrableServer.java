@@ -0,0 +1,49 @@
+package rtsj.sandbox.simulation;
+
+import java.util.Comparator;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Virtual counterpart of DeferrableServerEventHandler: the budget is preserved
+ * throughout the period and topped-up at each period boundary.
+ * 
+ * NOTE: Background-priority service of the RTSJ handler (once the budget is
+ * exhausted) is not modelled.
+ * 
+ */
+public class SimulatedDeferrableServer extends SimulatedServer {
+
+	private long nextReplenishment;
+
+	public SimulatedDeferrableServer(int priority, long period, long capacity,
+			Comparator<SimulatedEvent> ordering) {
+		super("Deferrable", priority, period, capacity, ordering);
+	}
+
+	@Override
+	public void advanceTo(long now) {
+		if (now >= nextReplenishment) {
+			nextReplenishment += period;
+			budget = capacity;
+		}
+	}
+
+	@Override
+	public long nextInternalEvent(long now) {
+		return nextReplenishment;
+	}
+}
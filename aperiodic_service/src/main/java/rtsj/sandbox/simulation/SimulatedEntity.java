@@ -0,0 +1,79 @@
+package rtsj.sandbox.simulation;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Anything competing for the (single, virtual) processor in a Simulator.
+ * 
+ * All times are virtual nanoseconds.
+ * 
+ */
+public interface SimulatedEntity {
+
+	/**
+	 * Higher value means higher priority.
+	 * 
+	 * @return
+	 */
+	int priority();
+
+	/**
+	 * Handle everything that falls due at "now" (releases, replenishments, period
+	 * boundaries). Called at every simulation step before selecting the entity to
+	 * run.
+	 * 
+	 * @param now
+	 */
+	void advanceTo(long now);
+
+	/**
+	 * @param now
+	 * @return the earliest time after "now" at which advanceTo() must be called,
+	 *         Long.MAX_VALUE if none
+	 */
+	long nextInternalEvent(long now);
+
+	/**
+	 * Does the entity want the processor?
+	 * 
+	 * @return
+	 */
+	boolean isReady();
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) isReady()
+	 * 
+	 * @return for how long the entity can run before its state changes (job
+	 *         completion, budget exhaustion), always positive
+	 */
+	long maxRun();
+
+	/**
+	 * Execute for "delta".
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) isReady()
+	 * 
+	 * 2) 0 < delta <= maxRun()
+	 * 
+	 * @param now   the time execution starts
+	 * @param delta
+	 */
+	void run(long now, long delta);
+}
@@ -0,0 +1,44 @@
+package rtsj.sandbox.simulation;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Virtual counterpart of InterruptibleAperiodicEvent.
+ * 
+ * A restartable event interrupted by budget exhaustion keeps the progress made
+ * so far (as RestartableAperiodicEvent does by recalculating its remaining
+ * cost), a non-restartable one is lost.
+ * 
+ */
+public class SimulatedEvent {
+
+	final long arrival;
+	final long cost;
+	final long absoluteDeadline;
+	final boolean restartable;
+	// arrival order, breaks ties between equal deadlines
+	final long sequence;
+	long remaining;
+
+	SimulatedEvent(long arrival, long cost, long relativeDeadline, boolean restartable, long sequence) {
+		this.arrival = arrival;
+		this.cost = cost;
+		this.absoluteDeadline = arrival + relativeDeadline;
+		this.restartable = restartable;
+		this.sequence = sequence;
+		this.remaining = cost;
+	}
+}
@@ -0,0 +1,116 @@
+package rtsj.sandbox.simulation;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Virtual counterpart of PeriodicTask: releases a job of constant cost every
+ * period, starting at time 0, with an implicit deadline.
+ * 
+ * A job still unfinished when the next one is released has missed its
+ * deadline. As in PeriodicTask (where the MissHandler is only notified), the
+ * overrun is counted and the job's remaining work is discarded.
+ * 
+ */
+public class SimulatedPeriodicTask implements SimulatedEntity {
+
+	private final String name;
+	private final int priority;
+	private final long period;
+	private final long cost;
+
+	private long nextRelease;
+	private long jobRelease;
+	private long remaining;
+
+	private long jobs;
+	private long deadlineMisses;
+	private long worstResponseTime;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) 0 < cost <= period
+	 * 
+	 * @param name
+	 * @param priority
+	 * @param period
+	 * @param cost
+	 */
+	public SimulatedPeriodicTask(String name, int priority, long period, long cost) {
+		assert cost > 0 && cost <= period : "cost must be positive and not more than period";
+		this.name = name;
+		this.priority = priority;
+		this.period = period;
+		this.cost = cost;
+	}
+
+	@Override
+	public int priority() {
+		return priority;
+	}
+
+	@Override
+	public void advanceTo(long now) {
+		while (now >= nextRelease) {
+			if (remaining > 0) {
+				deadlineMisses++;
+			}
+			jobs++;
+			jobRelease = nextRelease;
+			remaining = cost;
+			nextRelease += period;
+		}
+	}
+
+	@Override
+	public long nextInternalEvent(long now) {
+		return nextRelease;
+	}
+
+	@Override
+	public boolean isReady() {
+		return remaining > 0;
+	}
+
+	@Override
+	public long maxRun() {
+		return remaining;
+	}
+
+	@Override
+	public void run(long now, long delta) {
+		remaining -= delta;
+		if (remaining == 0) {
+			worstResponseTime = Math.max(worstResponseTime, now + delta - jobRelease);
+		}
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public long jobs() {
+		return jobs;
+	}
+
+	public long deadlineMisses() {
+		return deadlineMisses;
+	}
+
+	public long worstResponseTime() {
+		return worstResponseTime;
+	}
+}
@@ -0,0 +1,49 @@
+package rtsj.sandbox.simulation;
+
+import java.util.Comparator;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Virtual counterpart of PollingServer: at the start of each period the queue
+ * is polled and, if there are events, they are served until the budget or the
+ * queue is exhausted. Once the queue is found empty the remaining budget is
+ * lost until the next period.
+ * 
+ */
+public class SimulatedPollingServer extends SimulatedServer {
+
+	private long nextPeriod;
+
+	public SimulatedPollingServer(int priority, long period, long capacity, Comparator<SimulatedEvent> ordering) {
+		super("Polling", priority, period, capacity, ordering);
+	}
+
+	@Override
+	public void advanceTo(long now) {
+		if (now >= nextPeriod) {
+			nextPeriod += period;
+			budget = hasWork() ? capacity : 0;
+		} else if (!hasWork()) {
+			budget = 0;
+		}
+	}
+
+	@Override
+	public long nextInternalEvent(long now) {
+		return nextPeriod;
+	}
+}
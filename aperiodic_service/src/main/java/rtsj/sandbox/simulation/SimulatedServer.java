@@ -0,0 +1,227 @@
+package rtsj.sandbox.simulation;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Common behaviour of the virtual aperiodic servers: a queue of pending events,
+ * an execution budget and the event being processed.
+ * 
+ * As in the RTSJ servers, an event is taken off the queue when processing
+ * starts and is only put back if it is interrupted by budget exhaustion and is
+ * restartable, so a newly arrived event never displaces the one being
+ * processed.
+ * 
+ * Subclasses define when the budget is replenished and whether the server is
+ * eligible to run.
+ * 
+ */
+public abstract class SimulatedServer implements SimulatedEntity {
+
+	/**
+	 * Earliest absolute deadline first, arrival order among equal deadlines.
+	 */
+	public static final Comparator<SimulatedEvent> EDF = new Comparator<SimulatedEvent>() {
+		@Override
+		public int compare(SimulatedEvent e1, SimulatedEvent e2) {
+			int c = Long.compare(e1.absoluteDeadline, e2.absoluteDeadline);
+			return (c != 0) ? c : Long.compare(e1.sequence, e2.sequence);
+		}
+	};
+
+	/**
+	 * Shortest remaining processing time first, arrival order among ties.
+	 * 
+	 * NOTE: Events are keyed when queued; a partially processed event is re-keyed
+	 * by being re-queued (see run()).
+	 */
+	public static final Comparator<SimulatedEvent> SRPT = new Comparator<SimulatedEvent>() {
+		@Override
+		public int compare(SimulatedEvent e1, SimulatedEvent e2) {
+			int c = Long.compare(e1.remaining, e2.remaining);
+			return (c != 0) ? c : Long.compare(e1.sequence, e2.sequence);
+		}
+	};
+
+	/**
+	 * Least laxity first. Laxity is (deadline - now - remaining), and "now" is the
+	 * same for every queued event, so (deadline - remaining) orders them alike.
+	 */
+	public static final Comparator<SimulatedEvent> LEAST_LAXITY = new Comparator<SimulatedEvent>() {
+		@Override
+		public int compare(SimulatedEvent e1, SimulatedEvent e2) {
+			int c = Long.compare(e1.absoluteDeadline - e1.remaining, e2.absoluteDeadline - e2.remaining);
+			return (c != 0) ? c : Long.compare(e1.sequence, e2.sequence);
+		}
+	};
+
+	/**
+	 * Arrival order.
+	 */
+	public static final Comparator<SimulatedEvent> FIFO = new Comparator<SimulatedEvent>() {
+		@Override
+		public int compare(SimulatedEvent e1, SimulatedEvent e2) {
+			return Long.compare(e1.sequence, e2.sequence);
+		}
+	};
+
+	protected final int priority;
+	protected final long period;
+	protected final long capacity;
+	protected long budget;
+
+	private final String name;
+	private final PriorityQueue<SimulatedEvent> queue;
+	private SimulatedEvent current;
+
+	private long arrived;
+	private long completed;
+	private long late;
+	private long lost;
+	private long totalResponseTime;
+	private long worstResponseTime;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) 0 < capacity <= period
+	 * 
+	 * @param name
+	 * @param priority
+	 * @param period
+	 * @param capacity budget per period
+	 * @param ordering
+	 */
+	protected SimulatedServer(String name, int priority, long period, long capacity,
+			Comparator<SimulatedEvent> ordering) {
+		assert capacity > 0 && capacity <= period : "capacity must be positive and not more than period";
+		this.name = name;
+		this.priority = priority;
+		this.period = period;
+		this.capacity = capacity;
+		this.queue = new PriorityQueue<SimulatedEvent>(16, ordering);
+	}
+
+	void arrive(SimulatedEvent event) {
+		arrived++;
+		queue.add(event);
+	}
+
+	@Override
+	public int priority() {
+		return priority;
+	}
+
+	@Override
+	public boolean isReady() {
+		return budget > 0 && hasWork();
+	}
+
+	@Override
+	public long maxRun() {
+		return Math.min(budget, (current != null) ? current.remaining : queue.peek().remaining);
+	}
+
+	@Override
+	public void run(long now, long delta) {
+		if (current == null) {
+			current = queue.poll();
+		}
+		current.remaining -= delta;
+		budget -= delta;
+		consumed(now, delta);
+		if (current.remaining == 0) {
+			long response = now + delta - current.arrival;
+			completed++;
+			totalResponseTime += response;
+			worstResponseTime = Math.max(worstResponseTime, response);
+			if (now + delta > current.absoluteDeadline) {
+				late++;
+			}
+			current = null;
+		} else if (budget == 0) {
+			// interrupted by budget exhaustion
+			if (current.restartable) {
+				queue.add(current);
+			} else {
+				lost++;
+			}
+			current = null;
+		}
+	}
+
+	/**
+	 * Hook for servers which need to account for consumed budget.
+	 * 
+	 * @param now   the time execution started
+	 * @param delta
+	 */
+	protected void consumed(long now, long delta) {
+	}
+
+	protected boolean hasWork() {
+		return current != null || !queue.isEmpty();
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public long arrived() {
+		return arrived;
+	}
+
+	public long completed() {
+		return completed;
+	}
+
+	/**
+	 * Events completed after their absolute deadline.
+	 * 
+	 * @return
+	 */
+	public long late() {
+		return late;
+	}
+
+	/**
+	 * Non-restartable events interrupted by budget exhaustion.
+	 * 
+	 * @return
+	 */
+	public long lost() {
+		return lost;
+	}
+
+	/**
+	 * Events still queued (or being processed) when the simulation ended.
+	 * 
+	 * @return
+	 */
+	public long pending() {
+		return queue.size() + (current != null ? 1 : 0);
+	}
+
+	public long meanResponseTime() {
+		return (completed == 0) ? 0 : totalResponseTime / completed;
+	}
+
+	public long worstResponseTime() {
+		return worstResponseTime;
+	}
+}
@@ -0,0 +1,124 @@
+package rtsj.sandbox.simulation;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Virtual counterpart of SporadicServerEventHandler, modelling its
+ * replenishment rule as implemented rather than the textbook algorithm:
+ * 
+ * - the budget consumed in each chunk of activity is given back one period
+ * after the chunk started
+ * 
+ * - a replenishment falling due whilst a chunk is active closes the chunk
+ * (scheduling what it has consumed so far) and starts a new one at the
+ * replenishment time
+ * 
+ * - pending replenishments come from a bounded pool (as many as the handler's
+ * SporadicServerReplenishment handlers) and a new chunk is only started when
+ * one is free, otherwise the server waits for the next one to fall due
+ * 
+ * NOTE: Event processing is not interrupted and restarted on a replenishment
+ * as in the handler; the time that costs on an RTSJ VM is not modelled.
+ * 
+ */
+public class SimulatedSporadicServer extends SimulatedServer {
+
+	// as SporadicServerEventHandler
+	private static final int DEFAULT_MAX_PENDING_REPLENISHMENTS = 8;
+
+	private final int maxPendingReplenishments;
+	// pending replenishments as (time, amount) pairs, in time order
+	private final ArrayDeque<long[]> replenishments;
+	private boolean chunkActive;
+	private long chunkStart;
+	private long chunkConsumed;
+
+	public SimulatedSporadicServer(int priority, long period, long capacity, Comparator<SimulatedEvent> ordering) {
+		this(priority, period, capacity, ordering, DEFAULT_MAX_PENDING_REPLENISHMENTS);
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) maxPendingReplenishments > 0
+	 * 
+	 * @param priority
+	 * @param period
+	 * @param capacity
+	 * @param ordering
+	 * @param maxPendingReplenishments as given to SporadicServerEventHandler
+	 */
+	public SimulatedSporadicServer(int priority, long period, long capacity, Comparator<SimulatedEvent> ordering,
+			int maxPendingReplenishments) {
+		super("Sporadic", priority, period, capacity, ordering);
+		assert maxPendingReplenishments > 0 : "maxPendingReplenishments must be positive";
+		this.maxPendingReplenishments = maxPendingReplenishments;
+		replenishments = new ArrayDeque<long[]>(maxPendingReplenishments);
+		budget = capacity;
+	}
+
+	@Override
+	public void advanceTo(long now) {
+		while (!replenishments.isEmpty() && replenishments.peekFirst()[0] <= now) {
+			long[] due = replenishments.pollFirst();
+			budget += due[1];
+			if (chunkActive) {
+				// uses the replenishment just freed
+				scheduleChunkReplenishment();
+				chunkStart = due[0];
+			}
+		}
+		if (chunkActive && !isReady()) {
+			chunkActive = false;
+			scheduleChunkReplenishment();
+		}
+	}
+
+	/**
+	 * A new chunk needs a free replenishment to be closed with.
+	 */
+	@Override
+	public boolean isReady() {
+		return super.isReady() && (chunkActive || replenishments.size() < maxPendingReplenishments);
+	}
+
+	@Override
+	public long nextInternalEvent(long now) {
+		return replenishments.isEmpty() ? Long.MAX_VALUE : replenishments.peekFirst()[0];
+	}
+
+	@Override
+	protected void consumed(long now, long delta) {
+		if (!chunkActive) {
+			chunkActive = true;
+			chunkStart = now;
+			chunkConsumed = 0;
+		}
+		chunkConsumed += delta;
+	}
+
+	private void scheduleChunkReplenishment() {
+		if (chunkConsumed == 0) {
+			return;
+		}
+		assert replenishments.size() < maxPendingReplenishments : "no replenishment free to close the chunk with";
+		replenishments.addLast(new long[] { chunkStart + period, chunkConsumed });
+		chunkConsumed = 0;
+	}
+}
@@ -0,0 +1,99 @@
+package rtsj.sandbox.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Deterministic discrete-event simulation of a uniprocessor, fixed-priority
+ * preemptive scheduler running a periodic task-set and one aperiodic server on
+ * a virtual clock.
+ * 
+ * Time only advances to the next point at which the scheduling decision can
+ * change (a release, replenishment, arrival, job completion or budget
+ * exhaustion), so hours of virtual time are simulated in well under a second
+ * and every run over the same ArrivalTrace produces exactly the same results.
+ * 
+ * Scheduling overheads and context switch costs are not modelled. Priority ties
+ * are resolved in favour of the server, then in the order tasks were added.
+ * 
+ */
+public class Simulator {
+
+	private final List<SimulatedPeriodicTask> tasks;
+	private final List<SimulatedEntity> entities;
+	private final SimulatedServer server;
+	private final ArrivalTrace trace;
+
+	public Simulator(SimulatedServer server, ArrivalTrace trace) {
+		this.server = server;
+		this.trace = trace;
+		tasks = new ArrayList<SimulatedPeriodicTask>();
+		entities = new ArrayList<SimulatedEntity>();
+		entities.add(server);
+	}
+
+	public Simulator addTask(SimulatedPeriodicTask task) {
+		tasks.add(task);
+		entities.add(task);
+		return this;
+	}
+
+	/**
+	 * Runs from time 0 until "horizon".
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) horizon > 0
+	 * 
+	 * 2) has not been run already
+	 * 
+	 * @param horizon
+	 */
+	public void run(long horizon) {
+		assert horizon > 0 : "horizon must be positive";
+		long now = 0;
+		int nextArrival = 0;
+		while (now < horizon) {
+			while (nextArrival < trace.size() && trace.arrival(nextArrival) <= now) {
+				server.arrive(trace.createEvent(nextArrival++));
+			}
+			long next = (nextArrival < trace.size()) ? Math.min(horizon, trace.arrival(nextArrival)) : horizon;
+			SimulatedEntity selected = null;
+			for (SimulatedEntity entity : entities) {
+				entity.advanceTo(now);
+				next = Math.min(next, entity.nextInternalEvent(now));
+				if (entity.isReady() && (selected == null || entity.priority() > selected.priority())) {
+					selected = entity;
+				}
+			}
+			if (selected != null) {
+				next = Math.min(next, now + selected.maxRun());
+				selected.run(now, next - now);
+			}
+			now = next;
+		}
+	}
+
+	public SimulatedServer server() {
+		return server;
+	}
+
+	public List<SimulatedPeriodicTask> tasks() {
+		return tasks;
+	}
+}
@@ -59,7 +59,8 @@ public class InterrupteeInAINonBlocking extends RealtimeThread implements Interr
 		AbsoluteTime waitUntil = now.add(waitTime);
 
 		while (now.compareTo(waitUntil) < 0) {
-			now = clock.getTime();
+			// read into the same instance rather than allocating one per iteration
+			clock.getTime(now);
 		}
 
 		System.out.println("Finished busy waiting...");
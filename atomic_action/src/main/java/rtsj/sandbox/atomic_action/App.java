@@ -3,8 +3,11 @@ package rtsj.sandbox.atomic_action;
 import java.util.Arrays;
 
 import javax.realtime.AsynchronouslyInterruptedException;
+import javax.realtime.PriorityScheduler;
 import javax.realtime.RelativeTime;
 
+import rtsj.sandbox.common.EventLogWriter;
+
 /**
  * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
  * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
@@ -60,6 +63,9 @@ public class App {
 
 	public static void main(String... args) {
 
+		// drains the logs of the real-time threads to stdout at the lowest priority
+		new EventLogWriter(PriorityScheduler.instance().getMinPriority(), new RelativeTime(100, 0)).start();
+
 		AsynchronouslyInterruptedException t1Aie = new AsynchronouslyInterruptedException();
 		AsynchronouslyInterruptedException t2Aie = new AsynchronouslyInterruptedException();
 		AsynchronouslyInterruptedException t3Aie = new AsynchronouslyInterruptedException();
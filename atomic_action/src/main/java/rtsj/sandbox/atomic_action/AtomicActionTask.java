@@ -5,6 +5,9 @@ import javax.realtime.Interruptible;
 import javax.realtime.RealtimeThread;
 import javax.realtime.RelativeTime;
 
+import rtsj.sandbox.common.EventLog;
+import rtsj.sandbox.common.LogCode;
+
 /**
  * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
  * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
@@ -30,6 +33,7 @@ public class AtomicActionTask extends RealtimeThread implements Interruptible {
 	private final AsynchronouslyInterruptedException aie;
 	private final RelativeTime cost;
 	private final boolean abort;
+	private final EventLog log;
 
 	public AtomicActionTask(AtomicActionControl control, AsynchronouslyInterruptedException aie, RelativeTime cost,
 			String name, boolean abort) {
@@ -38,6 +42,7 @@ public class AtomicActionTask extends RealtimeThread implements Interruptible {
 		this.cost = cost;
 		this.abort = abort;
 		setName(name);
+		this.log = EventLog.create(name, 16);
 	}
 
 	@Override
@@ -51,9 +56,9 @@ public class AtomicActionTask extends RealtimeThread implements Interruptible {
 		assert aie.clear() : "Thread:" + getName()
 				+ ": AIE is not the current one. Maybe this action started an Interruptible of its own?";
 		try {
-			System.out.println("Thread:" + getName() + " interrupted");
+			log.log(LogCode.ACTION_INTERRUPTED, getId());
 			control.abort();
-			System.out.println("Thread:" + getName() + " exit abort");
+			log.log(LogCode.ACTION_EXIT_ABORT, getId());
 		} catch (Exception e) {
 			// TODO: Communicate this somehow to atomic-action?
 			// throw new RuntimeException(e);
@@ -67,17 +72,17 @@ public class AtomicActionTask extends RealtimeThread implements Interruptible {
 				control.abort();
 				return;
 			}
-			System.out.println("Thread:" + getName() + " arrived");
+			log.log(LogCode.ACTION_ARRIVED, getId());
 			control.arrived();
-			System.out.println("Thread:" + getName() + " running");
+			log.log(LogCode.ACTION_RUNNING, getId());
 			sleep(cost);
 			boolean actionFailed = control.done();
 			if (actionFailed) {
-				System.out.println("Thread:" + getName() + " - Action failed, ran recovery action");
+				log.log(LogCode.ACTION_RECOVERED, getId());
 				control.abort();
-				System.out.println("Thread:" + getName() + " exit abort");
+				log.log(LogCode.ACTION_EXIT_ABORT, getId());
 			} else {
-				System.out.println("Thread:" + getName() + " exit normal");
+				log.log(LogCode.ACTION_EXIT_NORMAL, getId());
 			}
 		} catch (InterruptedException e) {
 			// Never reached
@@ -0,0 +1,168 @@
+package rtsj.sandbox.benchmarks;
+
+import java.util.BitSet;
+
+import javax.realtime.Affinity;
+import javax.realtime.OneShotTimer;
+import javax.realtime.PriorityParameters;
+import javax.realtime.PriorityScheduler;
+import javax.realtime.RealtimeThread;
+import javax.realtime.RelativeTime;
+
+import rtsj.sandbox.common.LatencyHistogram;
+import rtsj.sandbox.common.PreciseWait;
+import rtsj.sandbox.common.TimeUtils;
+import rtsj.sandbox.use_cases.patient_monitoring.VoltageControl;
+import rtsj.sandbox.use_cases.patient_monitoring.harness.SingleRegisterRawInt;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Measurements which need an RTSJ VM's threads, and so are not JMH
+ * benchmarks (see the other classes in this package for those):
+ * 
+ * 1) the PreciseWait accuracy report (measured with System.nanoTime())
+ * 
+ * 2) a priority inversion stress of VoltageControl: the latency of the
+ * heart-beat handler's path (re-arming the watchdog and resetting the voltage)
+ * at the highest priority, whilst a lowest priority thread - the voltage
+ * action - keeps stepping up the voltage through a slow register write. Both
+ * threads are bound to one processor, so the handler always preempts the
+ * action, almost always in the middle of a write. The same stress is run
+ * against the old, synchronised, VoltageControl (SynchronizedVoltageControl)
+ * as the baseline, whose handler path waits for the rest of the write
+ * 
+ * Results are printed as comma separated values.
+ * 
+ * Must be run on an RTSJ VM, preferably with the benchmark thread at a
+ * real-time priority so that measurements are not disturbed by other load.
+ * 
+ */
+public class App {
+
+	private static final int SPIN_WAIT_SAMPLES = 200;
+	private static final int HEARTBEAT_SAMPLES = 5_000;
+	// time between beats, during which the voltage action runs
+	private static final RelativeTime BEAT_INTERVAL = new RelativeTime(1, 0);
+	private static final RelativeTime REGISTER_WRITE = new RelativeTime(0, 100_000);
+
+	public static void main(String... args) {
+		// calibrated at the priority the benchmarks run at, before the first wait
+		long overheadCorrection = PreciseWait.calibrate();
+		System.out.println("PreciseWait overhead correction ns," + overheadCorrection);
+		System.out.println("benchmark,requested ns,min error ns,median error ns,p99 error ns,max error ns");
+		reportPreciseWait(10_000L);
+		reportPreciseWait(100_000L);
+		reportPreciseWait(1_000_000L);
+
+		System.out.println();
+		System.out.println("benchmark,samples,median ns,p99 ns,p99.99 ns,max ns");
+		stressHeartbeatPath();
+	}
+
+	private static void reportPreciseWait(long nanos) {
+		printAccuracy("PreciseWait.spin", PreciseWait.measure(nanos, SPIN_WAIT_SAMPLES, false));
+		printAccuracy("PreciseWait.spinYield", PreciseWait.measure(nanos, SPIN_WAIT_SAMPLES, true));
+	}
+
+	private static void printAccuracy(String name, PreciseWait.Accuracy accuracy) {
+		System.out.println(String.format("%s,%d,%d,%d,%d,%d", name, accuracy.requestedNanos(),
+				accuracy.minErrorNanos(), accuracy.medianErrorNanos(), accuracy.p99ErrorNanos(),
+				accuracy.maxErrorNanos()));
+	}
+
+	private static void stressHeartbeatPath() {
+		BitSet processor = new BitSet();
+		processor.set(Affinity.getAvailableProcessors().nextSetBit(0));
+		Affinity oneProcessor = Affinity.generate(processor);
+
+		VoltageControl lockFree = new VoltageControl(new SlowRegister(REGISTER_WRITE), 1, 20);
+		stressHeartbeatPath("VoltageControl.heartbeat-path", oneProcessor, lockFree::increaseVoltageAndApplyShock,
+				lockFree::resetVoltage);
+		SynchronizedVoltageControl baseline = new SynchronizedVoltageControl(new SlowRegister(REGISTER_WRITE), 1,
+				20);
+		stressHeartbeatPath("SynchronizedVoltageControl.heartbeat-path", oneProcessor,
+				baseline::increaseVoltageAndApplyShock, baseline::resetVoltage);
+	}
+
+	private static void stressHeartbeatPath(String name, Affinity processor, Runnable stepUp, Runnable reset) {
+		PriorityScheduler scheduler = PriorityScheduler.instance();
+		// re-armed by every beat, so never fires
+		RelativeTime maxNoBeatInterval = new RelativeTime(3_600_000, 0);
+		OneShotTimer watchdog = new OneShotTimer(maxNoBeatInterval, null);
+		LatencyHistogram latency = new LatencyHistogram(10_000_000L);
+		RealtimeThread action = new RealtimeThread(new PriorityParameters(scheduler.getMinPriority()), null, null,
+				null, null, () -> {
+					while (!Thread.currentThread().isInterrupted()) {
+						stepUp.run();
+					}
+				});
+		RealtimeThread handler = new RealtimeThread(new PriorityParameters(scheduler.getMaxPriority()), null, null,
+				null, null, () -> {
+					for (int i = 0; i < HEARTBEAT_SAMPLES; i++) {
+						try {
+							RealtimeThread.sleep(BEAT_INTERVAL);
+						} catch (InterruptedException e) {
+							return;
+						}
+						// as HeartbeatInterruptHandler.handleAsyncEvent()
+						long start = System.nanoTime();
+						watchdog.reschedule(maxNoBeatInterval);
+						reset.run();
+						latency.record(System.nanoTime() - start);
+					}
+				});
+		Affinity.set(processor, action);
+		Affinity.set(processor, handler);
+		watchdog.start();
+		action.start();
+		handler.start();
+		try {
+			handler.join();
+			action.interrupt();
+			action.join();
+		} catch (InterruptedException e) {
+			// Ignore
+		}
+		watchdog.destroy();
+		LatencyHistogram.Snapshot snapshot = latency.snapshot();
+		System.out.println(String.format("%s,%d,%d,%d,%d,%d", name, snapshot.count(), snapshot.valueAtPercentile(50),
+				snapshot.valueAtPercentile(99), snapshot.valueAtPercentile(99.99), snapshot.max()));
+	}
+
+	// a device register whose writes take a while, so that the voltage action
+	// spends most of its time writing it
+	private static final class SlowRegister extends SingleRegisterRawInt {
+
+		private final RelativeTime writeTime;
+		private volatile int value;
+
+		SlowRegister(RelativeTime writeTime) {
+			this.writeTime = writeTime;
+		}
+
+		@Override
+		public int getInt() {
+			return value;
+		}
+
+		@Override
+		public void setInt(int value) {
+			TimeUtils.spinWait(writeTime);
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package rtsj.sandbox.benchmarks;
+
+import javax.realtime.RelativeTime;
+
+import rtsj.sandbox.aperiodic_service.common.InterruptibleAperiodicEvent;
+import rtsj.sandbox.aperiodic_service.common.RestartableAperiodicEvent;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Events shared by the benchmarks, with costs and deadlines spread so that
+ * orderings do real work.
+ * 
+ */
+final class BenchmarkEvents {
+
+	static final int EVENTS = 1024;
+
+	private BenchmarkEvents() {
+	}
+
+	static InterruptibleAperiodicEvent[] create() {
+		InterruptibleAperiodicEvent[] events = new InterruptibleAperiodicEvent[EVENTS];
+		for (int i = 0; i < EVENTS; i++) {
+			RelativeTime cost = new RelativeTime((i * 7) % 50 + 1, 0);
+			RelativeTime deadline = new RelativeTime((i * 13) % 500 + 100, 0);
+			events[i] = new RestartableAperiodicEvent(cost, deadline, "Event#" + i);
+		}
+		return events;
+	}
+}
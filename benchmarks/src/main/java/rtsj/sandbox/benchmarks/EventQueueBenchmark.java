@@ -0,0 +1,87 @@
+package rtsj.sandbox.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import rtsj.sandbox.aperiodic_service.common.AperiodicEventCostComparator;
+import rtsj.sandbox.aperiodic_service.common.AperiodicEventPriorityQueue;
+import rtsj.sandbox.aperiodic_service.common.BoundedDeadlineEventQueue;
+import rtsj.sandbox.aperiodic_service.common.InterruptibleAperiodicEvent;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Push/pop of both event queue implementations. One operation is one push and
+ * one pop, the queue being filled and then drained on every invocation.
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class EventQueueBenchmark {
+
+	// kept small as BoundedDeadlineEventQueue.pop() scans every slot
+	private static final int BOUNDED_CAPACITY = 32;
+
+	private InterruptibleAperiodicEvent[] events;
+	private AperiodicEventPriorityQueue<InterruptibleAperiodicEvent> priorityQueue;
+	private BoundedDeadlineEventQueue<InterruptibleAperiodicEvent> boundedQueue;
+
+	@Setup
+	public void setUp() {
+		events = BenchmarkEvents.create();
+		priorityQueue = new AperiodicEventPriorityQueue<InterruptibleAperiodicEvent>(BenchmarkEvents.EVENTS,
+				new AperiodicEventCostComparator<InterruptibleAperiodicEvent>());
+		boundedQueue = new BoundedDeadlineEventQueue<InterruptibleAperiodicEvent>(BOUNDED_CAPACITY);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BenchmarkEvents.EVENTS)
+	public void priorityQueuePushPop(Blackhole bh) {
+		for (int i = 0; i < BenchmarkEvents.EVENTS; i++) {
+			priorityQueue.push(events[i]);
+		}
+		for (int i = 0; i < BenchmarkEvents.EVENTS; i++) {
+			bh.consume(priorityQueue.pop());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BOUNDED_CAPACITY)
+	public void boundedQueuePushPop(Blackhole bh) {
+		for (int i = 0; i < BOUNDED_CAPACITY; i++) {
+			boundedQueue.push(events[i]);
+		}
+		for (int i = 0; i < BOUNDED_CAPACITY; i++) {
+			bh.consume(boundedQueue.pop());
+		}
+	}
+}
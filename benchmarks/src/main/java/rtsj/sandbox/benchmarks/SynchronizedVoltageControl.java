@@ -0,0 +1,59 @@
+package rtsj.sandbox.benchmarks;
+
+import javax.realtime.device.RawInt;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * 
+ * 
+ * VoltageControl as it was before it was made lock-free: every method
+ * synchronises on the object, so resetVoltage() waits for a concurrent
+ * increaseVoltageAndApplyShock() to finish writing the register. Kept only as
+ * the baseline of the priority inversion stress (see App).
+ * 
+ * NOTE: The precondition assertion of the original increaseVoltage() was
+ * inverted (it failed whenever assertions were enabled) and is left out.
+ * 
+ */
+final class SynchronizedVoltageControl {
+
+	private final RawInt register;
+	private final int voltageIncreaseStep;
+	private final int maxVoltageThreshold;
+
+	private int currentVoltage;
+
+	SynchronizedVoltageControl(RawInt register, int voltageIncreaseStep, int maxVoltageThreshold) {
+		this.register = register;
+		this.voltageIncreaseStep = voltageIncreaseStep;
+		this.maxVoltageThreshold = maxVoltageThreshold;
+	}
+
+	synchronized boolean increaseVoltageAndApplyShock() {
+		if (currentVoltage + voltageIncreaseStep <= maxVoltageThreshold) {
+			currentVoltage += voltageIncreaseStep;
+			register.setInt(currentVoltage);
+			return true;
+		}
+		register.setInt(currentVoltage);
+		return false;
+	}
+
+	synchronized void resetVoltage() {
+		currentVoltage = 0;
+	}
+}
@@ -0,0 +1,186 @@
+package rtsj.sandbox.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.realtime.AbsoluteTime;
+import javax.realtime.Clock;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Preallocated ring-buffer of binary log records (timestamp, code, id) with a
+ * single producer and a single consumer (the EventLogWriter).
+ * 
+ * Each real-time thread or handler that logs owns its own EventLog, so log()
+ * never contends with anything: it does not allocate, does not block and does
+ * not take the stdout lock. If the writer falls behind and the ring is full,
+ * records are dropped (and counted) rather than blocking the producer.
+ * 
+ * Every log created through create() is registered so that a single writer
+ * can drain all of them. Logs are meant to be created at start-up, from heap
+ * or immortal memory.
+ * 
+ * NOTE: Handlers that are not bound to a thread may still own a log as RTSJ
+ * serialises the invocations of a handler.
+ * 
+ */
+public class EventLog {
+
+	private static final int MAX_LOGS = 64;
+	private static final EventLog[] REGISTRY = new EventLog[MAX_LOGS];
+	private static int registered;
+
+	/**
+	 * Shared log which drops every record, for code running where no log has been
+	 * provided. Safe to use from any number of threads, as log() returns without
+	 * touching any state. It is not registered, so does not take one of the
+	 * MAX_LOGS.
+	 */
+	public static final EventLog DISCARD = new EventLog("discard", 0);
+
+	@FunctionalInterface
+	public interface RecordConsumer {
+
+		void accept(String owner, long timeNanos, int code, long id);
+	}
+
+	private final String owner;
+	// set only for DISCARD
+	private final boolean discard;
+	private final int mask;
+	private final long[] times;
+	private final int[] codes;
+	private final long[] ids;
+	private final AtomicLong head;
+	private final AtomicLong tail;
+	private final AtomicLong dropped;
+	private final Clock clk;
+	private final AbsoluteTime now;
+
+	private EventLog(String owner, int capacity) {
+		this.owner = owner;
+		this.discard = capacity == 0;
+		this.mask = capacity - 1;
+		times = new long[capacity];
+		codes = new int[capacity];
+		ids = new long[capacity];
+		head = new AtomicLong();
+		tail = new AtomicLong();
+		dropped = new AtomicLong();
+		clk = Clock.getRealtimeClock();
+		now = new AbsoluteTime();
+	}
+
+	/**
+	 * Creates and registers a new log.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) capacity is a positive power of two
+	 * 
+	 * @param owner    name of the producer, printed with each record
+	 * @param capacity
+	 * @return
+	 * @throws IllegalStateException if MAX_LOGS logs have already been created,
+	 *                               as the writer could not drain another
+	 */
+	public static synchronized EventLog create(String owner, int capacity) {
+		assert capacity > 0 && Integer.bitCount(capacity) == 1 : "capacity must be a positive power of two";
+		if (registered == MAX_LOGS) {
+			throw new IllegalStateException(
+					"Cannot create log for [" + owner + "]: all " + MAX_LOGS + " event logs have been created");
+		}
+		EventLog log = new EventLog(owner, capacity);
+		REGISTRY[registered++] = log;
+		return log;
+	}
+
+	/**
+	 * Drains every registered log.
+	 * 
+	 * Must only be called by one thread (the consumer).
+	 * 
+	 * @param consumer
+	 * @return number of records drained
+	 */
+	public static int drainAll(RecordConsumer consumer) {
+		int count;
+		synchronized (EventLog.class) {
+			count = registered;
+		}
+		int drained = 0;
+		for (int i = 0; i < count; i++) {
+			drained += REGISTRY[i].drain(consumer);
+		}
+		return drained;
+	}
+
+	/**
+	 * Must only be called by the log's owner, except on DISCARD which any thread
+	 * may call. Does not allocate or block.
+	 * 
+	 * @param code see LogCode
+	 * @param id
+	 */
+	public void log(int code, long id) {
+		if (discard) {
+			return;
+		}
+		long t = tail.get();
+		if (t - head.get() > mask) {
+			dropped.incrementAndGet();
+			return;
+		}
+		int slot = (int) (t & mask);
+		times[slot] = TimeUtils.toNanos(clk.getTime(now));
+		codes[slot] = code;
+		ids[slot] = id;
+		// publish the record, ordered after the writes above
+		tail.lazySet(t + 1);
+	}
+
+	/**
+	 * Must only be called by the consumer.
+	 * 
+	 * @param consumer
+	 * @return number of records drained
+	 */
+	public int drain(RecordConsumer consumer) {
+		long h = head.get();
+		long t = tail.get();
+		for (long i = h; i < t; i++) {
+			int slot = (int) (i & mask);
+			consumer.accept(owner, times[slot], codes[slot], ids[slot]);
+		}
+		// release the slots to the producer
+		head.lazySet(t);
+		return (int) (t - h);
+	}
+
+	public String owner() {
+		return owner;
+	}
+
+	/**
+	 * How many records were dropped because the log was full? Always 0 for
+	 * DISCARD.
+	 * 
+	 * @return
+	 */
+	public long dropped() {
+		return dropped.get();
+	}
+}
@@ -0,0 +1,70 @@
+package rtsj.sandbox.common;
+
+import javax.realtime.PeriodicParameters;
+import javax.realtime.PriorityParameters;
+import javax.realtime.RealtimeThread;
+import javax.realtime.RelativeTime;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Periodically drains every registered EventLog to standard output.
+ * 
+ * This is the only place log records are formatted and printed, so it is the
+ * only thread that allocates strings or takes the stdout lock on behalf of the
+ * logging threads. It should be given the lowest real-time priority so that
+ * printing never delays time-critical work; the log capacities must then
+ * cover the records produced in one period.
+ * 
+ * NOTE: Formatting allocates, so this thread must run in heap memory, i.e. it
+ * cannot be a NoHeapRealtimeThread. The producers can be, since EventLog.log()
+ * does not allocate.
+ * 
+ */
+public class EventLogWriter extends RealtimeThread {
+
+	private final StringBuilder line;
+
+	/**
+	 * @param priority
+	 * @param period   how often to drain the logs
+	 */
+	public EventLogWriter(int priority, RelativeTime period) {
+		setSchedulingParameters(new PriorityParameters(priority));
+		setReleaseParameters(new PeriodicParameters(period));
+		setName("EventLogWriter");
+		setDaemon(true);
+		line = new StringBuilder(128);
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			EventLog.drainAll(this::print);
+			waitForNextPeriod();
+		}
+	}
+
+	private void print(String owner, long timeNanos, int code, long id) {
+		line.setLength(0);
+		line.append(timeNanos / TimeUtils.NANOS_PER_MILLI).append("ms ").append(owner).append(": ")
+				.append(LogCode.describe(code));
+		if (id != 0) {
+			line.append(" [").append(id).append(']');
+		}
+		System.out.println(line);
+	}
+}
@@ -0,0 +1,137 @@
+package rtsj.sandbox.common;
+
+import javax.realtime.RelativeTime;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Server budget accounting in primitive nanoseconds.
+ * 
+ * Replaces the millis+nanos normalising arithmetic of RelativeTime on the
+ * server loop with plain long arithmetic. Conversion back to RTSJ time is only
+ * needed where the budget becomes a Timed timeout (see remaining(RelativeTime)).
+ * 
+ * INVARIANTS:
+ * 
+ * 1) (remaining() >= 0) && (remaining() <= total())
+ * 
+ * Not thread-safe.
+ * 
+ */
+public class ExecutionBudget {
+
+	// only changes in setTotal(), i.e. on a mode change
+	private long totalNanos;
+	private long remainingNanos;
+
+	/**
+	 * Starts with a full budget.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) total >= 0
+	 * 
+	 * @param total
+	 */
+	public ExecutionBudget(RelativeTime total) {
+		totalNanos = TimeUtils.toNanos(total);
+		assert totalNanos >= 0 : "total budget must not be negative";
+		remainingNanos = totalNanos;
+	}
+
+	public long total() {
+		return totalNanos;
+	}
+
+	public long remaining() {
+		return remainingNanos;
+	}
+
+	public boolean isExhausted() {
+		return remainingNanos == 0;
+	}
+
+	public boolean isFull() {
+		return remainingNanos == totalNanos;
+	}
+
+	/**
+	 * Charges the given execution time against the budget, never going below
+	 * zero.
+	 * 
+	 * @param nanos
+	 * @return the remaining budget
+	 */
+	public long consume(long nanos) {
+		remainingNanos = (nanos >= remainingNanos) ? 0 : remainingNanos - nanos;
+		assertInvariants();
+		return remainingNanos;
+	}
+
+	/**
+	 * Changes the total budget, e.g. on a mode change. The remaining budget is cut
+	 * down to the new total if it exceeds it but is otherwise left as it is, i.e.
+	 * a larger total only takes effect on the next replenish().
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) nanos >= 0
+	 * 
+	 * @param nanos
+	 */
+	public void setTotal(long nanos) {
+		assert nanos >= 0 : "total budget must not be negative";
+		totalNanos = nanos;
+		if (remainingNanos > totalNanos) {
+			remainingNanos = totalNanos;
+		}
+		assertInvariants();
+	}
+
+	/**
+	 * Refills the budget to its total.
+	 */
+	public void replenish() {
+		remainingNanos = totalNanos;
+	}
+
+	/**
+	 * Adds the given amount back to the budget, never going above the total.
+	 * 
+	 * @param nanos
+	 */
+	public void replenish(long nanos) {
+		remainingNanos = (nanos >= totalNanos - remainingNanos) ? totalNanos : remainingNanos + nanos;
+		assertInvariants();
+	}
+
+	/**
+	 * Copies the remaining budget into an RTSJ time, e.g. for Timed.resetTime().
+	 * Does not allocate.
+	 * 
+	 * @param dest
+	 * @return dest
+	 */
+	public RelativeTime remaining(RelativeTime dest) {
+		dest.set(remainingNanos / TimeUtils.NANOS_PER_MILLI, (int) (remainingNanos % TimeUtils.NANOS_PER_MILLI));
+		return dest;
+	}
+
+	private void assertInvariants() {
+		assert remainingNanos >= 0 && remainingNanos <= totalNanos : "remaining budget [" + remainingNanos
+				+ "] not within [0," + totalNanos + "]";
+	}
+}
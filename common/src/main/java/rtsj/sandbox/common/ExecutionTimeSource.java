@@ -0,0 +1,55 @@
+package rtsj.sandbox.common;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Where servers read the execution time their events consume from, so that
+ * it can be charged against an ExecutionBudget.
+ * 
+ * Reading the wall clock (WALL_CLOCK) charges a server for any time it spends
+ * preempted whilst processing an event; reading the processing thread's CPU
+ * clock (see ThreadCpuTimeSource) only charges it for the time it actually
+ * executed.
+ * 
+ * Implementations must not allocate.
+ * 
+ */
+@FunctionalInterface
+public interface ExecutionTimeSource {
+
+	/**
+	 * Elapsed wall-clock time, i.e. preemption is charged as execution.
+	 */
+	ExecutionTimeSource WALL_CLOCK = System::nanoTime;
+
+	/**
+	 * Execution time consumed so far by the calling thread, in nanoseconds. Only
+	 * the difference between two readings taken by the same thread is meaningful.
+	 * 
+	 * @return
+	 */
+	long currentThreadNanos();
+
+	/**
+	 * The calling thread's CPU clock if the VM provides one, the wall clock
+	 * otherwise (see ThreadCpuTimeSource.create()).
+	 * 
+	 * @return
+	 */
+	static ExecutionTimeSource threadCpuTimeOrWallClock() {
+		return ThreadCpuTimeSource.create();
+	}
+}
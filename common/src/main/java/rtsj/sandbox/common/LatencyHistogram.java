@@ -0,0 +1,171 @@
+package rtsj.sandbox.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Log-linear histogram of non-negative long values (typically nanoseconds), in
+ * the style of HdrHistogram: every power-of-two range is split into
+ * SUB_BUCKETS equal buckets, so values are recorded with a relative error of
+ * at most 1 / SUB_BUCKETS (about 3%) while the whole range up to "maxValue"
+ * needs only a few hundred counters.
+ * 
+ * All storage is allocated in the constructor and record() only performs
+ * atomic increments, so it does not allocate, does not block and may be called
+ * from any number of threads. Values above "maxValue" are counted in the
+ * highest bucket (max() still reports them exactly).
+ * 
+ * snapshot() copies the counters and allocates; it is meant for monitoring
+ * code outside the real-time threads. A snapshot taken while values are being
+ * recorded may be off by the values recorded during the copy.
+ * 
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private final AtomicLongArray counts;
+	private final AtomicLong count;
+	private final AtomicLong sum;
+	private final AtomicLong max;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) maxValue > 0
+	 * 
+	 * @param maxValue highest value recorded with full precision
+	 */
+	public LatencyHistogram(long maxValue) {
+		assert maxValue > 0 : "maxValue must be positive";
+		counts = new AtomicLongArray(indexOf(maxValue) + 1);
+		count = new AtomicLong();
+		sum = new AtomicLong();
+		max = new AtomicLong();
+	}
+
+	/**
+	 * Does not allocate. Negative values are recorded as 0.
+	 * 
+	 * @param value
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts.incrementAndGet(Math.min(indexOf(value), counts.length() - 1));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+		long currentMax = max.get();
+		while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+			currentMax = max.get();
+		}
+	}
+
+	public long count() {
+		return count.get();
+	}
+
+	public Snapshot snapshot() {
+		long[] copy = new long[counts.length()];
+		for (int i = 0; i < copy.length; i++) {
+			copy[i] = counts.get(i);
+		}
+		return new Snapshot(copy, count.get(), sum.get(), max.get());
+	}
+
+	// values below 2 * SUB_BUCKETS map to themselves, above that each power of two
+	// gets SUB_BUCKETS buckets
+	private static int indexOf(long value) {
+		int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+		return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+	}
+
+	// highest value that maps to the given index
+	private static long highestValueAt(int index) {
+		if (index < 2 * SUB_BUCKETS) {
+			return index;
+		}
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		long subBucket = index - ((long) shift << SUB_BUCKET_BITS);
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	/**
+	 * Point in time copy of a LatencyHistogram.
+	 */
+	public static class Snapshot {
+
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		private Snapshot(long[] counts, long count, long sum, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		public long count() {
+			return count;
+		}
+
+		public long max() {
+			return max;
+		}
+
+		public long mean() {
+			return (count == 0) ? 0 : sum / count;
+		}
+
+		/**
+		 * REQUIRES:
+		 * 
+		 * 1) 0 <= percentile <= 100
+		 * 
+		 * @param percentile
+		 * @return the (upper bound of the) value below or at which the given
+		 *         percentage of values fall, 0 if nothing was recorded
+		 */
+		public long valueAtPercentile(double percentile) {
+			assert percentile >= 0 && percentile <= 100 : "percentile must be within [0,100]";
+			long total = 0;
+			for (long c : counts) {
+				total += c;
+			}
+			long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= target) {
+					return Math.min(highestValueAt(i), max);
+				}
+			}
+			return 0;
+		}
+
+		@Override
+		public String toString() {
+			return "count=" + count + " mean=" + mean() + " p50=" + valueAtPercentile(50) + " p99="
+					+ valueAtPercentile(99) + " max=" + max;
+		}
+	}
+}
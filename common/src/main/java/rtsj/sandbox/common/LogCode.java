@@ -0,0 +1,112 @@
+package rtsj.sandbox.common;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Codes of the records written to an EventLog. The id logged alongside each
+ * code identifies the subject of the record (given in brackets).
+ * 
+ */
+public final class LogCode {
+
+	// aperiodic events (event id)
+	public static final int EVENT_STARTED = 1;
+	public static final int EVENT_COMPLETED = 2;
+	public static final int EVENT_INTERRUPTED = 3;
+	public static final int EVENT_DEADLINE_MISSED = 4;
+	public static final int EVENT_DROPPED = 5;
+	public static final int EVENT_DEMOTED = 6;
+	public static final int EVENT_SHED = 7;
+	public static final int EVENT_REQUEUE_REJECTED = 8;
+
+	// periodic tasks (thread id)
+	public static final int TASK_DEADLINE_MISSED = 10;
+
+	// atomic actions (thread id)
+	public static final int ACTION_ARRIVED = 20;
+	public static final int ACTION_RUNNING = 21;
+	public static final int ACTION_INTERRUPTED = 22;
+	public static final int ACTION_RECOVERED = 23;
+	public static final int ACTION_EXIT_NORMAL = 24;
+	public static final int ACTION_EXIT_ABORT = 25;
+
+	// patient monitoring (bed, 0 for a single patient)
+	public static final int ALARM_SOUNDED = 30;
+	public static final int MAX_VOLTAGE_APPLIED = 31;
+
+	// heart-beat analytics (heart rate in bpm, irregular percentage)
+	public static final int HEART_RATE_ABNORMAL = 32;
+	public static final int HEART_RHYTHM_IRREGULAR = 33;
+
+	// escalation (step)
+	public static final int ESCALATION_STEP = 34;
+
+	private LogCode() {
+	}
+
+	/**
+	 * Does not allocate.
+	 * 
+	 * @param code
+	 * @return
+	 */
+	public static String describe(int code) {
+		switch (code) {
+		case EVENT_STARTED:
+			return "event started";
+		case EVENT_COMPLETED:
+			return "event completed";
+		case EVENT_INTERRUPTED:
+			return "event interrupted";
+		case EVENT_DEADLINE_MISSED:
+			return "event deadline missed";
+		case EVENT_DROPPED:
+			return "infeasible event dropped";
+		case EVENT_DEMOTED:
+			return "infeasible event demoted to background";
+		case EVENT_SHED:
+			return "infeasible event shed, application notified";
+		case EVENT_REQUEUE_REJECTED:
+			return "interrupted event could not be re-queued (queue full), retired";
+		case TASK_DEADLINE_MISSED:
+			return "task deadline missed";
+		case ACTION_ARRIVED:
+			return "atomic action arrived";
+		case ACTION_RUNNING:
+			return "atomic action running";
+		case ACTION_INTERRUPTED:
+			return "atomic action interrupted";
+		case ACTION_RECOVERED:
+			return "atomic action failed, ran recovery action";
+		case ACTION_EXIT_NORMAL:
+			return "atomic action exit normal";
+		case ACTION_EXIT_ABORT:
+			return "atomic action exit abort";
+		case ALARM_SOUNDED:
+			return "***SOUNDING HOSPITAL ALARM***";
+		case MAX_VOLTAGE_APPLIED:
+			return "***WARNING: APPLYING MAX VOLTAGE***";
+		case ESCALATION_STEP:
+			return "no heart-beat, escalation step taken";
+		case HEART_RATE_ABNORMAL:
+			return "***WARNING: HEART RATE OUT OF RANGE***";
+		case HEART_RHYTHM_IRREGULAR:
+			return "***WARNING: IRREGULAR HEART RHYTHM***";
+		default:
+			return "unknown";
+		}
+	}
+}
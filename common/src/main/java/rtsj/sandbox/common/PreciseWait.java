@@ -0,0 +1,192 @@
+package rtsj.sandbox.common;
+
+import java.util.Arrays;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Busy-waits for a given number of nanoseconds, as precisely as a JVM allows.
+ * 
+ * Waiting is timed with System.nanoTime(), which is much cheaper to read than
+ * the real-time Clock and does not need an AbsoluteTime to read into. A wait
+ * still overshoots its target by the time it takes to notice the target has
+ * passed (on average about one clock read) plus the cost of the call itself,
+ * so that overhead is measured once (see calibrate()) and subtracted from
+ * every wait.
+ * 
+ * spin() occupies the processor for the whole interval and is what simulated
+ * workloads must use, as their cost is charged against server budgets.
+ * spinYield() yields whilst far from the target and only spins for the final
+ * stretch: it is as precise but lets threads of equal priority run in the
+ * meantime, so it is for waits that are not meant to model execution.
+ * 
+ * NOTE: Thread.onSpinWait() would be the natural spin hint but the sources
+ * target Java 8, so the loops spin on the clock reads alone.
+ * 
+ */
+public class PreciseWait {
+
+	// spinYield() yields until it is this close to its target
+	public static final long YIELD_THRESHOLD_NANOS = 50_000L;
+
+	private static final int CALIBRATION_SAMPLES = 201;
+	private static final long CALIBRATION_WAIT_NANOS = 20_000L;
+
+	private static volatile long overheadNanos;
+
+	/**
+	 * Busy-waits for the given time without yielding. Does not allocate.
+	 * 
+	 * @param nanos
+	 */
+	public static void spin(long nanos) {
+		long start = System.nanoTime();
+		long end = start + nanos - overheadNanos;
+		// difference rather than comparison, as nanoTime() may wrap around
+		while (System.nanoTime() - end < 0) {
+			// spin
+		}
+	}
+
+	/**
+	 * Waits for the given time, yielding the processor until the target is less
+	 * than YIELD_THRESHOLD_NANOS away. Does not allocate.
+	 * 
+	 * @param nanos
+	 */
+	public static void spinYield(long nanos) {
+		long start = System.nanoTime();
+		long end = start + nanos - overheadNanos;
+		long remaining;
+		while ((remaining = end - System.nanoTime()) > 0) {
+			if (remaining > YIELD_THRESHOLD_NANOS) {
+				Thread.yield();
+			}
+		}
+	}
+
+	/**
+	 * Measures the overshoot of uncorrected waits and uses its median as the
+	 * correction from then on. Until it is first called waits are uncorrected.
+	 * 
+	 * Must be called at startup, before any real-time thread that waits starts:
+	 * it is not run when the class is loaded, as that would happen in the first
+	 * thread to wait - e.g. inside an event run by a server under its budget's
+	 * timer. Call again from the thread (and priority) the waits will run at for a
+	 * more representative figure.
+	 * 
+	 * NOTE: Allocates and takes a few milliseconds.
+	 * 
+	 * @return the new correction in nanoseconds
+	 */
+	public static synchronized long calibrate() {
+		overheadNanos = 0;
+		long[] overshoots = new long[CALIBRATION_SAMPLES];
+		for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+			long start = System.nanoTime();
+			spin(CALIBRATION_WAIT_NANOS);
+			overshoots[i] = System.nanoTime() - start - CALIBRATION_WAIT_NANOS;
+		}
+		// median, as a preemption during calibration would inflate the mean
+		Arrays.sort(overshoots);
+		long median = overshoots[CALIBRATION_SAMPLES / 2];
+		overheadNanos = Math.max(0, median);
+		return overheadNanos;
+	}
+
+	/**
+	 * Correction currently subtracted from each wait.
+	 * 
+	 * @return
+	 */
+	public static long overheadNanos() {
+		return overheadNanos;
+	}
+
+	/**
+	 * Accuracy of spin() (or spinYield()) for a given wait, in nanoseconds past
+	 * the target: negative if a wait returned early.
+	 * 
+	 * NOTE: Allocates.
+	 * 
+	 * @param nanos
+	 * @param samples
+	 * @param yield   measure spinYield() rather than spin()
+	 * @return
+	 */
+	public static Accuracy measure(long nanos, int samples, boolean yield) {
+		assert samples > 0 : "samples must be positive";
+		long[] errors = new long[samples];
+		for (int i = 0; i < samples; i++) {
+			long start = System.nanoTime();
+			if (yield) {
+				spinYield(nanos);
+			} else {
+				spin(nanos);
+			}
+			errors[i] = System.nanoTime() - start - nanos;
+		}
+		return new Accuracy(nanos, errors);
+	}
+
+	/**
+	 * Result of measure().
+	 */
+	public static class Accuracy {
+
+		private final long requestedNanos;
+		private final long minErrorNanos;
+		private final long medianErrorNanos;
+		private final long p99ErrorNanos;
+		private final long maxErrorNanos;
+
+		private Accuracy(long requestedNanos, long[] errors) {
+			Arrays.sort(errors);
+			this.requestedNanos = requestedNanos;
+			minErrorNanos = errors[0];
+			medianErrorNanos = errors[errors.length / 2];
+			p99ErrorNanos = errors[(int) Math.min(errors.length - 1, (long) Math.ceil(errors.length * 0.99) - 1)];
+			maxErrorNanos = errors[errors.length - 1];
+		}
+
+		public long requestedNanos() {
+			return requestedNanos;
+		}
+
+		public long minErrorNanos() {
+			return minErrorNanos;
+		}
+
+		public long medianErrorNanos() {
+			return medianErrorNanos;
+		}
+
+		public long p99ErrorNanos() {
+			return p99ErrorNanos;
+		}
+
+		public long maxErrorNanos() {
+			return maxErrorNanos;
+		}
+
+		@Override
+		public String toString() {
+			return "Accuracy [requestedNanos=" + requestedNanos + ", minErrorNanos=" + minErrorNanos
+					+ ", medianErrorNanos=" + medianErrorNanos + ", p99ErrorNanos=" + p99ErrorNanos
+					+ ", maxErrorNanos=" + maxErrorNanos + "]";
+		}
+	}
+}
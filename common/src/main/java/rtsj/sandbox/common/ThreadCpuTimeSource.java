@@ -0,0 +1,71 @@
+package rtsj.sandbox.common;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Reads the CPU time consumed by the calling thread through the platform's
+ * ThreadMXBean (on Linux, the per-thread CPU clock), so that time a server
+ * spends preempted is not charged to its budget.
+ * 
+ * RTSJ cost enforcement (ProcessingGroupParameters) can cap what a group of
+ * schedulables executes but does not report what each of them consumed, hence
+ * the management interface.
+ * 
+ * NOTE: A Timed timeout still counts down in wall-clock time. With budgets
+ * charged in CPU time, an event that was preempted is therefore interrupted
+ * before the server has used its budget. The event is then restarted (as with
+ * any budget-depletion interrupt) with the budget that remains, so the server
+ * never over-runs - it only loses the remainder of that one run.
+ * 
+ */
+public class ThreadCpuTimeSource implements ExecutionTimeSource {
+
+	private final ThreadMXBean threads;
+
+	private ThreadCpuTimeSource(ThreadMXBean threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 * Enables thread CPU time measurement if the VM supports it but has it
+	 * disabled.
+	 * 
+	 * @return a ThreadCpuTimeSource, or ExecutionTimeSource.WALL_CLOCK if the VM
+	 *         cannot measure the current thread's CPU time
+	 */
+	public static ExecutionTimeSource create() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!threads.isCurrentThreadCpuTimeSupported()) {
+			return WALL_CLOCK;
+		}
+		if (!threads.isThreadCpuTimeEnabled()) {
+			try {
+				threads.setThreadCpuTimeEnabled(true);
+			} catch (UnsupportedOperationException | SecurityException e) {
+				return WALL_CLOCK;
+			}
+		}
+		return new ThreadCpuTimeSource(threads);
+	}
+
+	@Override
+	public long currentThreadNanos() {
+		return threads.getCurrentThreadCpuTime();
+	}
+}
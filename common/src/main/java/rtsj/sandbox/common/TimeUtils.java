@@ -0,0 +1,55 @@
+package rtsj.sandbox.common;
+
+import javax.realtime.AbsoluteTime;
+import javax.realtime.RelativeTime;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ *
+ * 
+ */
+public class TimeUtils {
+
+	public static final long NANOS_PER_MILLI = 1_000_000L;
+
+	/**
+	 * Busy-waits for the given time (see PreciseWait.spin()). Does not allocate.
+	 * 
+	 * @param time
+	 */
+	public static void spinWait(RelativeTime time) {
+		PreciseWait.spin(toNanos(time));
+	}
+
+	/**
+	 * Total nanoseconds represented by the given time. Does not allocate.
+	 * 
+	 * @param time
+	 * @return
+	 */
+	public static long toNanos(RelativeTime time) {
+		return time.getMilliseconds() * NANOS_PER_MILLI + time.getNanoseconds();
+	}
+
+	/**
+	 * Nanoseconds since the epoch of the given time's clock. Does not allocate.
+	 * 
+	 * @param time
+	 * @return
+	 */
+	public static long toNanos(AbsoluteTime time) {
+		return time.getMilliseconds() * NANOS_PER_MILLI + time.getNanoseconds();
+	}
+}
\ No newline at end of file
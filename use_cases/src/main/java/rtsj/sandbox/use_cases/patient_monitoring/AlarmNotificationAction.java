@@ -4,6 +4,9 @@ import javax.realtime.BoundAsyncEventHandler;
 import javax.realtime.MemoryArea;
 import javax.realtime.PriorityParameters;
 
+import rtsj.sandbox.common.EventLog;
+import rtsj.sandbox.common.LogCode;
+
 /**
  * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
  * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
@@ -24,16 +27,18 @@ import javax.realtime.PriorityParameters;
 public class AlarmNotificationAction extends BoundAsyncEventHandler {
 
 	public final MemoryArea memoryArea;
+	private final EventLog log;
 
 	public AlarmNotificationAction(int priority, MemoryArea memoryArea) {
 		setSchedulingParameters(new PriorityParameters(priority));
 		this.memoryArea = memoryArea;
+		this.log = EventLog.create("AlarmNotificationAction", 16);
 	}
 
 	@Override
 	public void handleAsyncEvent() {
 		memoryArea.enter(() -> {
-			System.out.println("***SOUNDING HOSPITAL ALARM***");
+			log.log(LogCode.ALARM_SOUNDED, 0);
 		});
 	}
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import javax.realtime.PriorityScheduler;
 import javax.realtime.RelativeTime;
 import javax.realtime.memory.LTMemory;
 
+import rtsj.sandbox.common.EventLogWriter;
+
 /**
  * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
  * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
@@ -44,8 +46,18 @@ public class App {
 
 	private static final long MAX_NO_BEAT_MILLIS = 5_000;
 	private static final String HEARTBEAT_INTERRUPT = "HEARTBEAT_INTERRUPT";
+	// heart-beat analytics: intervals analysed, normal heart rate range (bpm),
+	// pNN50 above which the rhythm is irregular
+	private static final int ANALYTICS_WINDOW = 32;
+	private static final int MIN_BPM = 40;
+	private static final int MAX_BPM = 150;
+	private static final long IRREGULAR_DIFFERENCE_MILLIS = 50;
+	private static final int MAX_IRREGULAR_PERCENT = 60;
 
 	public static void main(String... args) {
+		// drains the logs of the real-time threads to stdout at the lowest priority
+		new EventLogWriter(PriorityScheduler.instance().getMinPriority(), new RelativeTime(100, 0)).start();
+
 		// fired for every heart-beat
 		AsyncEvent heartBeatEvent = new AsyncEvent();
 		heartBeatEvent.bindTo(HEARTBEAT_INTERRUPT);
@@ -56,36 +68,39 @@ public class App {
 		// component priorities
 		final int maxPriority = PriorityScheduler.instance().getMaxPriority();
 		final int heartBeatInterruptHandlerPriority = maxPriority;
-		final int noBeatActionPriority = maxPriority - 1;
+		final int escalationPriority = maxPriority - 1;
 		final int alarmActionPriority = maxPriority - 2;
-		final int voltageActionPriority = maxPriority - 3;
 
 		// component collaborators
 		VoltageControl voltageControl = new VoltageControl(0177760, 0, 0, 1, 20);
 
-		// fired from watchdog when no heart-beat received within "maxNoBeatDuration"
-		// milliseconds
-		AsyncEvent noBeatEvent = new AsyncEvent();
-		// register handlers/actions with no-beat event
-		MemoryArea alarmActionMemoryArea = new LTMemory(1024 * 2);
-		AsyncEventHandler alarmAction = new AlarmNotificationAction(alarmActionPriority, alarmActionMemoryArea);
-		noBeatEvent.addHandler(alarmAction);
-		MemoryArea voltageActionMemoryArea = new LTMemory(1024 * 2);
-		AsyncEventHandler voltageAction = new VoltageApplicationAction(voltageActionPriority, voltageControl,
-				voltageActionMemoryArea);
-		noBeatEvent.addHandler(voltageAction);
+		// on heart failure: alarm and a first shock, then a shock 1 volt higher every
+		// further 5 seconds, holding at the max voltage
+		EscalationLadder ladder = new EscalationLadder(maxNoBeatDuration,
+				new EscalationLadder.Step(true, true, maxNoBeatDuration),
+				new EscalationLadder.Step(false, true, maxNoBeatDuration));
 
 		// *** CREATE AND START ALL COMPONENTS ***
 		RelativeTime maxNoBeatIntervalTime = new RelativeTime(maxNoBeatDuration);
 		OneShotTimer heartBeatWatchdog = new OneShotTimer(maxNoBeatIntervalTime, null); // handler attached a bit later
-		AsyncEventHandler noBeatThresholdExceededAction = new NoBeatThresholdExceededAction(noBeatActionPriority,
-				heartBeatWatchdog, maxNoBeatIntervalTime, noBeatEvent);
-		heartBeatWatchdog.setHandler(noBeatThresholdExceededAction);
+		// released by the watchdog when no heart-beat is received within
+		// "maxNoBeatDuration" milliseconds, takes every action itself
+		EscalationEngine escalation = new EscalationEngine(escalationPriority, ladder, heartBeatWatchdog,
+				maxNoBeatIntervalTime, voltageControl);
+		heartBeatWatchdog.setHandler(escalation);
+
+		// fired when the heart rate or rhythm becomes abnormal, the supervisor is
+		// alerted as for a no-beat
+		AsyncEvent abnormalBeatEvent = new AsyncEvent();
+		abnormalBeatEvent.addHandler(new AlarmNotificationAction(alarmActionPriority, new LTMemory(1024 * 2)));
+		HeartbeatAnalytics analytics = new HeartbeatAnalytics(ANALYTICS_WINDOW, MIN_BPM, MAX_BPM,
+				IRREGULAR_DIFFERENCE_MILLIS, MAX_IRREGULAR_PERCENT, abnormalBeatEvent);
 
 		// main heartbeat event handler
 		MemoryArea interruptHandlerMemoryArea = new LTMemory(1024 * 2);
 		AsyncEventHandler heartbeatInterruptHandler = new HeartbeatInterruptHandler(heartBeatInterruptHandlerPriority,
-				maxNoBeatIntervalTime, heartBeatWatchdog, voltageControl, interruptHandlerMemoryArea);
+				maxNoBeatIntervalTime, heartBeatWatchdog, voltageControl, analytics, escalation,
+				interruptHandlerMemoryArea);
 		heartBeatEvent.addHandler(heartbeatInterruptHandler);
 
 		heartBeatWatchdog.start();
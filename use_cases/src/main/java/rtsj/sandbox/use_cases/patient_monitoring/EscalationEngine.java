@@ -0,0 +1,186 @@
+package rtsj.sandbox.use_cases.patient_monitoring;
+
+import javax.realtime.BoundAsyncEventHandler;
+import javax.realtime.OneShotTimer;
+import javax.realtime.PriorityParameters;
+import javax.realtime.RelativeTime;
+
+import rtsj.sandbox.common.EventLog;
+import rtsj.sandbox.common.LogCode;
+import rtsj.sandbox.common.TimeUtils;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Reacts to the heart-beat watchdog's expiries by climbing an
+ * EscalationLadder, one step per expiry, until a heart-beat arrives (see
+ * reset()). It is the watchdog's handler, in place of
+ * NoBeatThresholdExceededAction and the AlarmNotificationAction and
+ * VoltageApplicationAction it releases, so each step costs a single handler
+ * release rather than three.
+ * 
+ * One engine per patient. Its state (the current step, whether the max voltage
+ * is being held) is preallocated and only touched by its bound thread, except
+ * for the latest beat (its time and a count of beats) which the heart-beat
+ * handler records with two stores.
+ * 
+ * A beat re-arms the watchdog itself, so the engine must tell an expiry which
+ * no beat followed from one which a beat has already superseded. Beats are
+ * counted; the engine notes the count whenever it arms the watchdog. On a
+ * release:
+ * 
+ * - no beat since the engine armed the watchdog: its own retry has expired,
+ * the next step is taken
+ * 
+ * - a beat since, and the beat's own interval has run out: no beat since the
+ * beat, the ladder starts again from the bottom
+ * 
+ * - a beat since, and the beat's interval has not run out: the beat landed
+ * after the expiry but before the engine ran. No step is taken; the watchdog is
+ * re-armed for the beat's expiry, in case the release consumed the beat's
+ * re-arm
+ * 
+ * A beat arriving whilst a step is taken may have its re-arm overwritten by the
+ * step's retry interval, so the engine then re-arms the watchdog for the beat's
+ * expiry instead.
+ * 
+ * REACTION TIME:
+ * 
+ * From the watchdog's expiry to the register write the engine performs: the
+ * release of this (bound, so no thread to dispatch to) handler; a few reads of
+ * the beat record and of the preallocated step; and
+ * VoltageControl.increaseVoltageAndApplyShock(), which is wait-free (at most
+ * two compare-and-sets and one register write). Nothing on the path
+ * allocates, locks or waits for another handler, and the alarm is only
+ * sounded after the shock. With the engine at the priority just below the
+ * heart-beat handler, the only interference is from that handler, whose path
+ * is also constant, so the worst-case reaction time is the release latency
+ * plus the engine's path plus one heart-beat handler run per beat arriving
+ * in the meantime.
+ * 
+ * NOTE: VoltageControl requires a single caller of
+ * increaseVoltageAndApplyShock(), which the engine is for its patient.
+ * 
+ */
+public class EscalationEngine extends BoundAsyncEventHandler {
+
+	private final EscalationLadder ladder;
+	private final OneShotTimer watchdog;
+	private final long maxNoBeatNanos;
+	private final VoltageControl voltageControl;
+	private final EventLog log;
+
+	// set by the heart-beat handler, the time before the count
+	private volatile long lastBeatNanos;
+	private volatile long beats;
+
+	// only touched by this handler
+	private int step;
+	private boolean holding;
+	// beats counted when this engine last armed the watchdog
+	private long beatsAtArm;
+	private final RelativeTime untilBeatExpiry;
+
+	/**
+	 * @param priority          should be just below the heart-beat handler's
+	 * @param ladder
+	 * @param watchdog          the heart-beat watchdog, this engine must be its
+	 *                          handler
+	 * @param maxNoBeatInterval the watchdog's interval when beats arrive
+	 * @param voltageControl
+	 */
+	public EscalationEngine(int priority, EscalationLadder ladder, OneShotTimer watchdog,
+			RelativeTime maxNoBeatInterval, VoltageControl voltageControl) {
+		setSchedulingParameters(new PriorityParameters(priority));
+		this.ladder = ladder;
+		this.watchdog = watchdog;
+		this.maxNoBeatNanos = TimeUtils.toNanos(maxNoBeatInterval);
+		this.voltageControl = voltageControl;
+		this.log = EventLog.create("EscalationEngine", 16);
+		untilBeatExpiry = new RelativeTime();
+	}
+
+	/**
+	 * Called by the heart-beat handler for every beat, after it has re-armed the
+	 * watchdog, so that the next expiry starts from the bottom of the ladder.
+	 * Wait-free.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) a single caller (the heart-beat handler)
+	 * 
+	 * @param beatNanos System.nanoTime() of the beat
+	 */
+	public void reset(long beatNanos) {
+		lastBeatNanos = beatNanos;
+		beats++;
+	}
+
+	/**
+	 * No heartbeat received within the current step's interval. Does not
+	 * allocate.
+	 */
+	@Override
+	public void handleAsyncEvent() {
+		long seen = beats;
+		if (seen != beatsAtArm) {
+			long sinceBeat = System.nanoTime() - lastBeatNanos;
+			if (sinceBeat < maxNoBeatNanos) {
+				// stale, the beat came after the expiry
+				armForBeat(sinceBeat);
+				return;
+			}
+			step = 0;
+			holding = false;
+		}
+		EscalationLadder.Step current = ladder.step(step);
+		RelativeTime retryAfter;
+		if (holding) {
+			voltageControl.increaseVoltageAndApplyShock();
+			retryAfter = ladder.holdInterval();
+		} else {
+			// shock first, it is the reaction time that matters
+			if (current.appliesShock() && !voltageControl.increaseVoltageAndApplyShock()) {
+				holding = true;
+				log.log(LogCode.MAX_VOLTAGE_APPLIED, 0);
+			}
+			if (current.soundsAlarm()) {
+				log.log(LogCode.ALARM_SOUNDED, 0);
+			}
+			log.log(LogCode.ESCALATION_STEP, step);
+			retryAfter = holding ? ladder.holdInterval() : current.retryAfter();
+			step = Math.min(step + 1, ladder.size() - 1);
+		}
+		beatsAtArm = seen;
+		watchdog.reschedule(retryAfter);
+		// watchdog must be made active and enabled again since it has fired now
+		watchdog.start();
+		if (beats != seen) {
+			// a beat arrived whilst stepping and its re-arm may just have been
+			// overwritten by the retry interval
+			armForBeat(System.nanoTime() - lastBeatNanos);
+		}
+	}
+
+	// arms the watchdog for the expiry of the latest beat, leaving beatsAtArm as
+	// it is so that the beat is still seen by the next release
+	private void armForBeat(long sinceBeatNanos) {
+		long remaining = Math.max(0, maxNoBeatNanos - sinceBeatNanos);
+		untilBeatExpiry.set(remaining / TimeUtils.NANOS_PER_MILLI, (int) (remaining % TimeUtils.NANOS_PER_MILLI));
+		watchdog.reschedule(untilBeatExpiry);
+		watchdog.start();
+	}
+}
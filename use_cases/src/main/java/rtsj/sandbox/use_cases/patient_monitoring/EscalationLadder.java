@@ -0,0 +1,113 @@
+package rtsj.sandbox.use_cases.patient_monitoring;
+
+import javax.realtime.RelativeTime;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * The steps an EscalationEngine takes whilst a patient's heart fails to beat.
+ * 
+ * Each step may sound the alarm and/or apply a (stepped up) shock, and says how
+ * long to wait for a beat before the next step is taken. The last step is
+ * repeated until a beat arrives. Once the voltage has reached its maximum, the
+ * ladder is left for the hold: a shock at the max voltage every
+ * "holdInterval".
+ * 
+ * Immutable.
+ * 
+ */
+public class EscalationLadder {
+
+	/**
+	 * One step of the ladder. Immutable.
+	 */
+	public static final class Step {
+
+		private final boolean soundAlarm;
+		private final boolean applyShock;
+		private final RelativeTime retryAfter;
+
+		/**
+		 * REQUIRES:
+		 * 
+		 * 1) retryAfter > 0
+		 * 
+		 * @param soundAlarm
+		 * @param applyShock
+		 * @param retryAfter how long to wait for a beat before the next step
+		 */
+		public Step(boolean soundAlarm, boolean applyShock, RelativeTime retryAfter) {
+			assert retryAfter.compareToZero() > 0 : "retryAfter must be positive";
+			this.soundAlarm = soundAlarm;
+			this.applyShock = applyShock;
+			this.retryAfter = new RelativeTime(retryAfter);
+		}
+
+		public boolean soundsAlarm() {
+			return soundAlarm;
+		}
+
+		public boolean appliesShock() {
+			return applyShock;
+		}
+
+		RelativeTime retryAfter() {
+			return retryAfter;
+		}
+	}
+
+	private final Step[] steps;
+	private final RelativeTime holdInterval;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) steps.length > 0
+	 * 
+	 * 2) holdInterval > 0
+	 * 
+	 * @param holdInterval between shocks once the max voltage has been reached
+	 * @param steps        taken in order, the first on the watchdog's first
+	 *                     expiry
+	 */
+	public EscalationLadder(RelativeTime holdInterval, Step... steps) {
+		assert steps.length > 0 : "a ladder needs at least one step";
+		assert holdInterval.compareToZero() > 0 : "holdInterval must be positive";
+		this.steps = steps.clone();
+		this.holdInterval = new RelativeTime(holdInterval);
+	}
+
+	public int size() {
+		return steps.length;
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) 0 <= index < size()
+	 * 
+	 * @param index
+	 * @return
+	 */
+	public Step step(int index) {
+		assert index >= 0 && index < steps.length : "index [" + index + "] not within [0," + steps.length + ")";
+		return steps[index];
+	}
+
+	RelativeTime holdInterval() {
+		return holdInterval;
+	}
+}
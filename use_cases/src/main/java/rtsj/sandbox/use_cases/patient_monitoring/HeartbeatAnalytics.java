@@ -0,0 +1,216 @@
+package rtsj.sandbox.use_cases.patient_monitoring;
+
+import javax.realtime.AsyncEvent;
+
+import rtsj.sandbox.common.EventLog;
+import rtsj.sandbox.common.LogCode;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Streaming analysis of the heart-beats, run on the heart-beat handler's path.
+ * 
+ * The intervals between the last "window" beats, and the differences between
+ * successive intervals, are kept in preallocated rings, along with running
+ * sums over them, so that each beat updates in O(1), without allocating:
+ * 
+ * - heart rate, from the mean interval
+ * 
+ * - variability, as the root mean square of successive differences (RMSSD)
+ * 
+ * - irregularity, as the percentage of successive differences larger than a
+ * threshold (pNNx, e.g. pNN50 for a threshold of 50ms)
+ * 
+ * Once the window has filled, a rate outside [minBpm, maxBpm] or an
+ * irregularity above maxIrregularPercent is logged and "alertEvent" fired. It
+ * is fired once on entering the abnormal state rather than on every beat, and
+ * again only after the measurements have returned to normal.
+ * 
+ * REQUIRES:
+ * 
+ * onBeat() is only called by a single thread (the heart-beat handler); the
+ * getters may be called from any thread.
+ * 
+ */
+public class HeartbeatAnalytics {
+
+	private static final long MICROS_PER_MINUTE = 60_000_000L;
+	private static final long NANOS_PER_MICRO = 1_000L;
+
+	private final int window;
+	private final int minBpm;
+	private final int maxBpm;
+	private final long irregularThresholdMicros;
+	private final int maxIrregularPercent;
+	private final AsyncEvent alertEvent;
+	private final EventLog log;
+
+	// rings, indexed by next % window
+	private final long[] intervalsMicros;
+	private final long[] differencesMicros;
+	private long intervalSum;
+	// in microseconds squared, cannot overflow for any plausible interval
+	private long differenceSquareSum;
+	private int irregularCount;
+	private int intervals;
+	private int differences;
+	// nanoTime() has an arbitrary origin, so no value of it can mean "no beat"
+	private boolean haveLastBeat;
+	private long lastBeatNanos;
+	private long lastIntervalMicros;
+	private boolean alerting;
+
+	// published for readers on other threads
+	private volatile int heartRateBpm;
+	private volatile long rmssdMicros;
+	private volatile int irregularPercent;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) window > 1
+	 * 
+	 * 2) 0 < minBpm < maxBpm
+	 * 
+	 * @param window                   number of intervals analysed
+	 * @param minBpm
+	 * @param maxBpm
+	 * @param irregularThresholdMillis successive difference above which an
+	 *                                 interval counts as irregular
+	 * @param maxIrregularPercent
+	 * @param alertEvent               fired when the measurements become
+	 *                                 abnormal
+	 */
+	public HeartbeatAnalytics(int window, int minBpm, int maxBpm, long irregularThresholdMillis,
+			int maxIrregularPercent, AsyncEvent alertEvent) {
+		assert window > 1 : "window [" + window + "] must be more than one interval";
+		assert minBpm > 0 && minBpm < maxBpm : "[" + minBpm + "," + maxBpm + "] is not a valid heart rate range";
+		this.window = window;
+		this.minBpm = minBpm;
+		this.maxBpm = maxBpm;
+		this.irregularThresholdMicros = irregularThresholdMillis * 1_000L;
+		this.maxIrregularPercent = maxIrregularPercent;
+		this.alertEvent = alertEvent;
+		intervalsMicros = new long[window];
+		differencesMicros = new long[window];
+		haveLastBeat = false;
+		log = EventLog.create("HeartbeatAnalytics", 16);
+	}
+
+	/**
+	 * Does not allocate. O(1).
+	 * 
+	 * @param beatNanos time of the beat (System.nanoTime())
+	 */
+	public void onBeat(long beatNanos) {
+		if (haveLastBeat) {
+			long intervalMicros = (beatNanos - lastBeatNanos) / NANOS_PER_MICRO;
+			if (intervals > 0) {
+				addDifference(intervalMicros - lastIntervalMicros);
+			}
+			addInterval(intervalMicros);
+			lastIntervalMicros = intervalMicros;
+			publish();
+			checkThresholds();
+		}
+		lastBeatNanos = beatNanos;
+		haveLastBeat = true;
+	}
+
+	private void addInterval(long intervalMicros) {
+		int slot = intervals % window;
+		if (intervals >= window) {
+			intervalSum -= intervalsMicros[slot];
+		}
+		intervalsMicros[slot] = intervalMicros;
+		intervalSum += intervalMicros;
+		// keep the index from overflowing, whilst remembering the window is full
+		intervals = (intervals >= 2 * window) ? window + slot + 1 : intervals + 1;
+	}
+
+	private void addDifference(long differenceMicros) {
+		int slot = differences % window;
+		if (differences >= window) {
+			long evicted = differencesMicros[slot];
+			differenceSquareSum -= evicted * evicted;
+			if (Math.abs(evicted) > irregularThresholdMicros) {
+				irregularCount--;
+			}
+		}
+		differencesMicros[slot] = differenceMicros;
+		differenceSquareSum += differenceMicros * differenceMicros;
+		if (Math.abs(differenceMicros) > irregularThresholdMicros) {
+			irregularCount++;
+		}
+		differences = (differences >= 2 * window) ? window + slot + 1 : differences + 1;
+	}
+
+	private void publish() {
+		int intervalCount = Math.min(intervals, window);
+		long meanIntervalMicros = intervalSum / intervalCount;
+		heartRateBpm = (meanIntervalMicros == 0) ? 0 : (int) (MICROS_PER_MINUTE / meanIntervalMicros);
+		int differenceCount = Math.min(differences, window);
+		if (differenceCount > 0) {
+			rmssdMicros = (long) Math.sqrt((double) differenceSquareSum / differenceCount);
+			irregularPercent = irregularCount * 100 / differenceCount;
+		}
+	}
+
+	private void checkThresholds() {
+		if (differences < window) {
+			// too few beats for the measurements to mean anything
+			return;
+		}
+		int rate = heartRateBpm;
+		boolean rateAbnormal = rate < minBpm || rate > maxBpm;
+		boolean irregular = irregularPercent > maxIrregularPercent;
+		if ((rateAbnormal || irregular) && !alerting) {
+			alerting = true;
+			if (rateAbnormal) {
+				log.log(LogCode.HEART_RATE_ABNORMAL, rate);
+			}
+			if (irregular) {
+				log.log(LogCode.HEART_RHYTHM_IRREGULAR, irregularPercent);
+			}
+			alertEvent.fire();
+		} else if (!rateAbnormal && !irregular) {
+			alerting = false;
+		}
+	}
+
+	/**
+	 * @return over the window, 0 until the second beat
+	 */
+	public int heartRateBpm() {
+		return heartRateBpm;
+	}
+
+	/**
+	 * @return root mean square of successive differences over the window, 0 until
+	 *         the third beat
+	 */
+	public long rmssdMicros() {
+		return rmssdMicros;
+	}
+
+	/**
+	 * @return percentage of successive differences over the window above the
+	 *         irregularity threshold
+	 */
+	public int irregularPercent() {
+		return irregularPercent;
+	}
+}
@@ -0,0 +1,107 @@
+package rtsj.sandbox.use_cases.patient_monitoring;
+
+import java.util.function.LongConsumer;
+
+import javax.realtime.AsyncEventHandler;
+import javax.realtime.MemoryArea;
+import javax.realtime.OneShotTimer;
+import javax.realtime.PriorityParameters;
+import javax.realtime.RelativeTime;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ *
+ * 
+ */
+public class HeartbeatInterruptHandler extends AsyncEventHandler {
+
+	private final RelativeTime maxNoBeatInterval;
+	private final OneShotTimer oneShotTimer;
+	private final VoltageControl voltageControl;
+	private final HeartbeatAnalytics analytics;
+	private final EscalationEngine escalation;
+	private volatile LongConsumer rearmListener;
+
+	public HeartbeatInterruptHandler(int priority, RelativeTime maxNoBeatInterval, OneShotTimer oneShotTimer,
+			VoltageControl voltageControl, MemoryArea memoryArea) {
+		this(priority, maxNoBeatInterval, oneShotTimer, voltageControl, null, memoryArea);
+	}
+
+	/**
+	 * @param analytics fed with every beat, after the watchdog has been re-armed
+	 *                  (may be null)
+	 */
+	public HeartbeatInterruptHandler(int priority, RelativeTime maxNoBeatInterval, OneShotTimer oneShotTimer,
+			VoltageControl voltageControl, HeartbeatAnalytics analytics, MemoryArea memoryArea) {
+		this(priority, maxNoBeatInterval, oneShotTimer, voltageControl, analytics, null, memoryArea);
+	}
+
+	/**
+	 * @param analytics  fed with every beat, after the watchdog has been re-armed
+	 *                   (may be null)
+	 * @param escalation reset by every beat, when it is the watchdog's handler
+	 *                   (may be null)
+	 */
+	public HeartbeatInterruptHandler(int priority, RelativeTime maxNoBeatInterval, OneShotTimer oneShotTimer,
+			VoltageControl voltageControl, HeartbeatAnalytics analytics, EscalationEngine escalation,
+			MemoryArea memoryArea) {
+		super(new PriorityParameters(priority), null, null, memoryArea, null, false);
+		this.maxNoBeatInterval = new RelativeTime(maxNoBeatInterval);
+		this.oneShotTimer = oneShotTimer;
+		this.voltageControl = voltageControl;
+		this.analytics = analytics;
+		this.escalation = escalation;
+	}
+
+	/**
+	 * Tells the listener the time (System.nanoTime()) at which the watchdog has
+	 * been re-armed for each beat, e.g. to measure the beat to re-arm latency. The
+	 * listener is called on the handler's path so must not allocate.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) called before the handler is first released
+	 * 
+	 * @param rearmListener
+	 */
+	public void setRearmListener(LongConsumer rearmListener) {
+		this.rearmListener = rearmListener;
+	}
+
+	/**
+	 * At this stage we have received a heartbeat.
+	 */
+	@Override
+	public void handleAsyncEvent() {
+		// time the beat before anything else so that the intervals are accurate
+		long beatNanos = System.nanoTime();
+		// reset watchdog for next heartbeat duration
+		oneShotTimer.reschedule(maxNoBeatInterval);
+		LongConsumer listener = rearmListener;
+		if (listener != null) {
+			listener.accept(System.nanoTime());
+		}
+		// reset voltage as it might have been increased
+		voltageControl.resetVoltage();
+		// back to the bottom of the ladder
+		if (escalation != null) {
+			escalation.reset(beatNanos);
+		}
+		// does not allocate, so fits in the handler's memory area
+		if (analytics != null) {
+			analytics.onBeat(beatNanos);
+		}
+	}
+}
\ No newline at end of file
@@ -4,6 +4,9 @@ import javax.realtime.BoundAsyncEventHandler;
 import javax.realtime.MemoryArea;
 import javax.realtime.PriorityParameters;
 
+import rtsj.sandbox.common.EventLog;
+import rtsj.sandbox.common.LogCode;
+
 /**
  * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
  * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
@@ -25,11 +28,13 @@ public class VoltageApplicationAction extends BoundAsyncEventHandler {
 
 	private final VoltageControl voltageControl;
 	private final MemoryArea memoryArea;
+	private final EventLog log;
 
 	public VoltageApplicationAction(int priority, VoltageControl voltageControl, MemoryArea memoryArea) {
 		setSchedulingParameters(new PriorityParameters(priority));
 		this.voltageControl = voltageControl;
 		this.memoryArea = memoryArea;
+		this.log = EventLog.create("VoltageApplicationAction", 16);
 	}
 
 	@Override
@@ -37,7 +42,7 @@ public class VoltageApplicationAction extends BoundAsyncEventHandler {
 		memoryArea.enter(() -> {
 			boolean shockApplied = voltageControl.increaseVoltageAndApplyShock();
 			if (!shockApplied) {
-				System.out.println("***WARNING: APPLYING MAX VOLTAGE***");
+				log.log(LogCode.MAX_VOLTAGE_APPLIED, 0);
 			}
 		});
 	}
@@ -0,0 +1,138 @@
+package rtsj.sandbox.use_cases.patient_monitoring;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.realtime.device.RawInt;
+import javax.realtime.device.RawMemoryFactory;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * INVARIANT:
+ * 
+ * getCurrentVoltage() E [0,getMaxVoltageThreshold()]
+ * 
+ * The voltage is held in an AtomicInteger rather than behind a lock, so that
+ * resetVoltage() (called by the highest priority component, the heart-beat
+ * handler) is a single store and never waits for a lower priority caller of
+ * increaseVoltageAndApplyShock() - which, when the methods were synchronised,
+ * it would have done for as long as the register write took.
+ * 
+ * increaseVoltageAndApplyShock() steps the voltage up with a compare-and-set
+ * and then writes the stepped up value to the register outside of any lock.
+ * Given a single caller (as with VoltageApplicationAction, a single handler)
+ * the compare-and-set can only fail because of a reset, after which the
+ * voltage is 0 and stays 0 until the retry, so it is retried at most once,
+ * i.e. increaseVoltageAndApplyShock() is wait-free too. That caller is also
+ * the register's only writer.
+ * 
+ * NOTE: A reset between the compare-and-set and the register write does not
+ * stop the shock, just as a reset arriving whilst the lock was held would not
+ * have.
+ * 
+ * NOTE: All registers are assumed to be memory-mapped.
+ * 
+ * NOTE: The invariant is not part of requirements but was added for extra
+ * safety.
+ * 
+ */
+
+public class VoltageControl {
+
+	private final RawInt register;
+	private final int voltageIncreaseStep;
+	private final int maxVoltageThreshold;
+
+	private final AtomicInteger currentVoltage;
+
+	public VoltageControl(long registerAddress, int count, int stride, int voltageIncreaseStep,
+			int maxVoltageThreashold) {
+		this(RawMemoryFactory.getDefaultFactory().createRawInt(RawMemoryFactory.MEMORY_MAPPED_REGION,
+				registerAddress, count, stride), voltageIncreaseStep, maxVoltageThreashold);
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) 0 < voltageIncreaseStep <= maxVoltageThreshold
+	 * 
+	 * @param register            the device control register, or a stand-in for
+	 *                            it
+	 * @param voltageIncreaseStep
+	 * @param maxVoltageThreshold
+	 */
+	public VoltageControl(RawInt register, int voltageIncreaseStep, int maxVoltageThreshold) {
+		assert voltageIncreaseStep > 0
+				&& voltageIncreaseStep <= maxVoltageThreshold : "voltageIncreaseStep [" + voltageIncreaseStep
+						+ "] must be positive and not more than maxVoltageThreshold [" + maxVoltageThreshold + "]";
+		this.register = register;
+		this.voltageIncreaseStep = voltageIncreaseStep;
+		this.maxVoltageThreshold = maxVoltageThreshold;
+		currentVoltage = new AtomicInteger();
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) not called concurrently with itself (i.e. a single caller)
+	 * 
+	 * @return true if voltage was increased and shock was applied, false if shock
+	 *         was applied but voltage wasn't increased because the max voltage
+	 *         threshold has been reached.
+	 */
+	public boolean increaseVoltageAndApplyShock() {
+		int voltage = currentVoltage.get();
+		// are we allowed to increase the voltage with a step increment?
+		while (voltage + voltageIncreaseStep <= maxVoltageThreshold) {
+			int increased = voltage + voltageIncreaseStep;
+			if (currentVoltage.compareAndSet(voltage, increased)) {
+				assertWithinLimits(increased);
+				applyShock(increased);
+				return true;
+			}
+			// reset by a heart-beat - retry from 0, which cannot fail
+			voltage = currentVoltage.get();
+			assert voltage == 0 : "voltage [" + voltage + "] changed by other than a reset, more than one caller?";
+		}
+		applyShock(voltage);
+		return false;
+	}
+
+	private void applyShock(int voltage) {
+		// offset "0"
+		register.setInt(voltage);
+	}
+
+	/**
+	 * Wait-free.
+	 */
+	public void resetVoltage() {
+		currentVoltage.set(0);
+	}
+
+	public int getMaxVoltageThreshold() {
+		return maxVoltageThreshold;
+	}
+
+	public int getCurrentVoltage() {
+		return currentVoltage.get();
+	}
+
+	private void assertWithinLimits(int voltage) {
+		assert voltage >= 0 && voltage <= maxVoltageThreshold : "currentVoltage [" + voltage + "] not within [0,"
+				+ maxVoltageThreshold + "] limits";
+	}
+}
@@ -0,0 +1,175 @@
+package rtsj.sandbox.use_cases.patient_monitoring.harness;
+
+import java.util.function.LongConsumer;
+
+import javax.realtime.AsyncEvent;
+import javax.realtime.MemoryArea;
+import javax.realtime.OneShotTimer;
+import javax.realtime.PriorityScheduler;
+import javax.realtime.RelativeTime;
+import javax.realtime.memory.LTMemory;
+
+import rtsj.sandbox.common.EventLogWriter;
+import rtsj.sandbox.common.LatencyHistogram;
+import rtsj.sandbox.use_cases.patient_monitoring.EscalationEngine;
+import rtsj.sandbox.use_cases.patient_monitoring.EscalationLadder;
+import rtsj.sandbox.use_cases.patient_monitoring.HeartbeatInterruptHandler;
+import rtsj.sandbox.use_cases.patient_monitoring.VoltageControl;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * End-to-end reaction time of the patient monitoring system (see
+ * patient_monitoring.App) without the device: the heart-beat interrupt is
+ * simulated by a SimulatedHeartbeatSource and the shock register by a
+ * RecordingRawInt. The components in between are the real ones, wired as in
+ * patient_monitoring.App.
+ * 
+ * Reports the percentiles (see LatencyHistogram) of:
+ * 
+ * 1) beat to re-arm latency: from the (simulated) interrupt to the watchdog
+ * having been re-armed by the heart-beat handler
+ * 
+ * 2) no-beat to shock latency: from the no-beat threshold having been exceeded
+ * (i.e. the watchdog's expiry, the re-arm time plus the threshold) to the
+ * first register write that follows it
+ * 
+ * The run is repeatable (a fixed seed) and takes a few minutes, as the
+ * dropouts have to exceed the real threshold.
+ * 
+ */
+public class App {
+
+	private static final long MAX_NO_BEAT_MILLIS = 5_000;
+	private static final int BEATS = 200;
+	private static final int BPM = 90;
+	private static final long JITTER_MILLIS = 50;
+	private static final double DROPOUT_PROBABILITY = 0.02;
+	// long enough for two shocks per dropout
+	private static final long DROPOUT_MILLIS = 12_000;
+	private static final long SEED = 42;
+	private static final int REGISTER_CAPACITY = 1024;
+
+	public static void main(String... args) throws InterruptedException {
+		// drains the logs of the real-time threads to stdout at the lowest priority
+		new EventLogWriter(PriorityScheduler.instance().getMinPriority(), new RelativeTime(100, 0)).start();
+
+		AsyncEvent heartBeatEvent = new AsyncEvent();
+		RelativeTime maxNoBeatDuration = new RelativeTime(MAX_NO_BEAT_MILLIS, 0);
+
+		// component priorities, as in patient_monitoring.App
+		final int maxPriority = PriorityScheduler.instance().getMaxPriority();
+		final int heartBeatInterruptHandlerPriority = maxPriority;
+		final int escalationPriority = maxPriority - 1;
+
+		RecordingRawInt register = new RecordingRawInt(REGISTER_CAPACITY);
+		VoltageControl voltageControl = new VoltageControl(register, 1, 20);
+
+		EscalationLadder ladder = new EscalationLadder(maxNoBeatDuration,
+				new EscalationLadder.Step(true, true, maxNoBeatDuration),
+				new EscalationLadder.Step(false, true, maxNoBeatDuration));
+
+		RelativeTime maxNoBeatIntervalTime = new RelativeTime(maxNoBeatDuration);
+		OneShotTimer heartBeatWatchdog = new OneShotTimer(maxNoBeatIntervalTime, null);
+		EscalationEngine escalation = new EscalationEngine(escalationPriority, ladder, heartBeatWatchdog,
+				maxNoBeatIntervalTime, voltageControl);
+		heartBeatWatchdog.setHandler(escalation);
+
+		SimulatedHeartbeatSource source = new SimulatedHeartbeatSource(heartBeatEvent, maxPriority, BEATS, BPM,
+				new RelativeTime(JITTER_MILLIS, 0), DROPOUT_PROBABILITY, new RelativeTime(DROPOUT_MILLIS, 0), SEED);
+		RearmRecorder rearms = new RearmRecorder(source, BEATS + 1);
+
+		MemoryArea interruptHandlerMemoryArea = new LTMemory(1024 * 2);
+		HeartbeatInterruptHandler heartbeatInterruptHandler = new HeartbeatInterruptHandler(
+				heartBeatInterruptHandlerPriority, maxNoBeatIntervalTime, heartBeatWatchdog, voltageControl, null,
+				escalation, interruptHandlerMemoryArea);
+		heartbeatInterruptHandler.setRearmListener(rearms);
+		heartBeatEvent.addHandler(heartbeatInterruptHandler);
+
+		heartBeatWatchdog.start();
+		// the start arms the watchdog as a beat would
+		rearms.armed(System.nanoTime());
+		source.start();
+		source.join();
+
+		report(rearms, register, MAX_NO_BEAT_MILLIS * 1_000_000L, source.dropouts());
+		System.exit(0);
+	}
+
+	private static void report(RearmRecorder rearms, RecordingRawInt register, long maxNoBeatNanos, int dropouts) {
+		// the first write after each re-arm is the reaction to the watchdog's expiry,
+		// any further writes before the next re-arm are escalations
+		LatencyHistogram noBeatToShock = new LatencyHistogram(1_000_000_000L);
+		int rearm = -1;
+		int lastReactedTo = -1;
+		for (int i = 0; i < register.writeCount(); i++) {
+			long written = register.writeNanos(i);
+			while (rearm + 1 < rearms.count() && rearms.armedNanos(rearm + 1) <= written) {
+				rearm++;
+			}
+			if (rearm >= 0 && rearm != lastReactedTo) {
+				noBeatToShock.record(written - (rearms.armedNanos(rearm) + maxNoBeatNanos));
+				lastReactedTo = rearm;
+			}
+		}
+		System.out.println("dropouts," + dropouts + ",register writes," + register.writeCount());
+		System.out.println("measurement,samples,median ns,p99 ns,max ns");
+		print("beat-to-rearm", rearms.beatToRearm.snapshot());
+		print("no-beat-to-shock", noBeatToShock.snapshot());
+	}
+
+	private static void print(String name, LatencyHistogram.Snapshot snapshot) {
+		System.out.println(String.format("%s,%d,%d,%d,%d", name, snapshot.count(), snapshot.valueAtPercentile(50),
+				snapshot.valueAtPercentile(99), snapshot.max()));
+	}
+
+	// called on the heart-beat handler's path, so does not allocate
+	private static final class RearmRecorder implements LongConsumer {
+
+		private final SimulatedHeartbeatSource source;
+		private final LatencyHistogram beatToRearm;
+		private final long[] armedNanos;
+		private volatile int count;
+
+		RearmRecorder(SimulatedHeartbeatSource source, int capacity) {
+			this.source = source;
+			beatToRearm = new LatencyHistogram(1_000_000_000L);
+			armedNanos = new long[capacity];
+		}
+
+		@Override
+		public void accept(long rearmedNanos) {
+			beatToRearm.record(rearmedNanos - source.lastBeatNanos());
+			armed(rearmedNanos);
+		}
+
+		void armed(long nanos) {
+			int next = count;
+			if (next < armedNanos.length) {
+				armedNanos[next] = nanos;
+				count = next + 1;
+			}
+		}
+
+		int count() {
+			return count;
+		}
+
+		long armedNanos(int index) {
+			return armedNanos[index];
+		}
+	}
+}
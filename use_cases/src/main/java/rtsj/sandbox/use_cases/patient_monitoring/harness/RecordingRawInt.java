@@ -0,0 +1,116 @@
+package rtsj.sandbox.use_cases.patient_monitoring.harness;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * In-memory stand-in for a device register, so that VoltageControl can be
+ * exercised without the device. Every write is recorded along with the time
+ * it was made (System.nanoTime()), up to "capacity" writes; later writes are
+ * only counted.
+ * 
+ * All storage is allocated in the constructor, so setInt() does not allocate.
+ * The offset and bulk accessors of RawInt only reach this one register (see
+ * SingleRegisterRawInt).
+ * 
+ * REQUIRES:
+ * 
+ * A single writer (as VoltageControl guarantees); readers may be on any
+ * thread.
+ * 
+ */
+public class RecordingRawInt extends SingleRegisterRawInt {
+
+	private final long[] writeNanos;
+	private final int[] values;
+	// published after the slot has been written
+	private volatile int recorded;
+	private volatile int value;
+	private long overflowed;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) capacity > 0
+	 * 
+	 * @param capacity
+	 */
+	public RecordingRawInt(int capacity) {
+		assert capacity > 0 : "capacity [" + capacity + "] must be positive";
+		writeNanos = new long[capacity];
+		values = new int[capacity];
+	}
+
+	@Override
+	public int getInt() {
+		return value;
+	}
+
+	@Override
+	public void setInt(int value) {
+		long now = System.nanoTime();
+		this.value = value;
+		int next = recorded;
+		if (next < values.length) {
+			writeNanos[next] = now;
+			values[next] = value;
+			recorded = next + 1;
+		} else {
+			overflowed++;
+		}
+	}
+
+	/**
+	 * @return number of writes recorded (not those beyond capacity)
+	 */
+	public int writeCount() {
+		return recorded;
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) 0 <= index < writeCount()
+	 * 
+	 * @param index
+	 * @return
+	 */
+	public long writeNanos(int index) {
+		assert index >= 0 && index < recorded : "index [" + index + "] not within [0," + recorded + ")";
+		return writeNanos[index];
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) 0 <= index < writeCount()
+	 * 
+	 * @param index
+	 * @return
+	 */
+	public int value(int index) {
+		assert index >= 0 && index < recorded : "index [" + index + "] not within [0," + recorded + ")";
+		return values[index];
+	}
+
+	/**
+	 * Only meaningful once the writer has stopped.
+	 * 
+	 * @return number of writes not recorded for lack of capacity
+	 */
+	public long overflowed() {
+		return overflowed;
+	}
+}
@@ -0,0 +1,123 @@
+package rtsj.sandbox.use_cases.patient_monitoring.harness;
+
+import java.util.Random;
+
+import javax.realtime.AsyncEvent;
+import javax.realtime.PriorityParameters;
+import javax.realtime.RealtimeThread;
+import javax.realtime.RelativeTime;
+
+import rtsj.sandbox.common.TimeUtils;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Software stand-in for the heart-beat interrupt: fires the heart-beat event
+ * "beats" times at the given rate, each interval varied by up to +/- "jitter"
+ * and, with probability "dropoutProbability", lengthened by "dropout" (a heart
+ * failure, if longer than the no-beat threshold).
+ * 
+ * The time of the latest beat (System.nanoTime() just before the event is
+ * fired) is published for latency measurements.
+ * 
+ * Does not allocate once started.
+ * 
+ */
+public class SimulatedHeartbeatSource extends RealtimeThread {
+
+	private final AsyncEvent heartBeatEvent;
+	private final int beats;
+	private final long intervalNanos;
+	private final long jitterNanos;
+	private final double dropoutProbability;
+	private final long dropoutNanos;
+	private final Random random;
+	private final RelativeTime sleep;
+
+	private volatile long lastBeatNanos;
+	private volatile int dropouts;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) bpm > 0
+	 * 
+	 * 2) 0 <= jitter < 60 / bpm seconds
+	 * 
+	 * 3) 0 <= dropoutProbability <= 1
+	 * 
+	 * @param heartBeatEvent
+	 * @param priority
+	 * @param beats              number of beats, after which the source stops
+	 * @param bpm
+	 * @param jitter
+	 * @param dropoutProbability per beat
+	 * @param dropout
+	 * @param seed               of the jitter and dropouts, for repeatable runs
+	 */
+	public SimulatedHeartbeatSource(AsyncEvent heartBeatEvent, int priority, int beats, int bpm, RelativeTime jitter,
+			double dropoutProbability, RelativeTime dropout, long seed) {
+		super(new PriorityParameters(priority), null);
+		assert bpm > 0 : "bpm [" + bpm + "] must be positive";
+		assert dropoutProbability >= 0 && dropoutProbability <= 1 : "dropoutProbability [" + dropoutProbability
+				+ "] must be within [0,1]";
+		this.heartBeatEvent = heartBeatEvent;
+		this.beats = beats;
+		intervalNanos = 60_000_000_000L / bpm;
+		jitterNanos = TimeUtils.toNanos(jitter);
+		assert jitterNanos >= 0 && jitterNanos < intervalNanos : "jitter must be less than the beat interval";
+		this.dropoutProbability = dropoutProbability;
+		dropoutNanos = TimeUtils.toNanos(dropout);
+		random = new Random(seed);
+		sleep = new RelativeTime();
+	}
+
+	@Override
+	public void run() {
+		for (int i = 0; i < beats; i++) {
+			long nanos = intervalNanos;
+			if (jitterNanos > 0) {
+				nanos += (long) ((random.nextDouble() * 2 - 1) * jitterNanos);
+			}
+			if (random.nextDouble() < dropoutProbability) {
+				nanos += dropoutNanos;
+				dropouts++;
+			}
+			sleep.set(nanos / TimeUtils.NANOS_PER_MILLI, (int) (nanos % TimeUtils.NANOS_PER_MILLI));
+			try {
+				RealtimeThread.sleep(sleep);
+			} catch (InterruptedException e) {
+				return;
+			}
+			lastBeatNanos = System.nanoTime();
+			heartBeatEvent.fire();
+		}
+	}
+
+	/**
+	 * @return System.nanoTime() of the latest beat, 0 before the first
+	 */
+	public long lastBeatNanos() {
+		return lastBeatNanos;
+	}
+
+	/**
+	 * @return number of dropouts so far
+	 */
+	public int dropouts() {
+		return dropouts;
+	}
+}
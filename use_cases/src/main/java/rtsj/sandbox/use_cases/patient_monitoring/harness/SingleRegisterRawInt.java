@@ -0,0 +1,128 @@
+package rtsj.sandbox.use_cases.patient_monitoring.harness;
+
+import javax.realtime.device.RawInt;
+import javax.realtime.device.RawMemoryFactory;
+import javax.realtime.device.RawMemoryRegion;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * 
+ * 
+ * Base of in-memory stand-ins for a single device register (count 1, offset
+ * 0), such as VoltageControl's. Subclasses only provide getInt() and
+ * setInt(int); every other accessor of RawInt is expressed in terms of them,
+ * and rejects any element other than the register itself with an
+ * IndexOutOfBoundsException.
+ * 
+ * Does not allocate, other than for the exception.
+ * 
+ */
+public abstract class SingleRegisterRawInt implements RawInt {
+
+	@Override
+	public int getInt(int offset) {
+		checkOffset(offset);
+		return getInt();
+	}
+
+	@Override
+	public int get(int offset, int[] values) {
+		return get(offset, values, 0, values.length);
+	}
+
+	/**
+	 * @return the number of values read, i.e. 0 or 1
+	 */
+	@Override
+	public int get(int offset, int[] values, int start, int count) {
+		int transferred = checkTransfer(offset, values, start, count);
+		if (transferred > 0) {
+			values[start] = getInt();
+		}
+		return transferred;
+	}
+
+	@Override
+	public void setInt(int offset, int value) {
+		checkOffset(offset);
+		setInt(value);
+	}
+
+	@Override
+	public int set(int offset, int[] values) {
+		return set(offset, values, 0, values.length);
+	}
+
+	/**
+	 * @return the number of values written, i.e. 0 or 1
+	 */
+	@Override
+	public int set(int offset, int[] values, int start, int count) {
+		int transferred = checkTransfer(offset, values, start, count);
+		if (transferred > 0) {
+			setInt(values[start]);
+		}
+		return transferred;
+	}
+
+	/**
+	 * A stand-in is not mapped anywhere.
+	 * 
+	 * @return 0
+	 */
+	@Override
+	public long getAddress() {
+		return 0;
+	}
+
+	/**
+	 * The region of the register the stand-in replaces.
+	 */
+	@Override
+	public RawMemoryRegion getRegion() {
+		return RawMemoryFactory.MEMORY_MAPPED_REGION;
+	}
+
+	@Override
+	public int getSize() {
+		return 1;
+	}
+
+	@Override
+	public int getStride() {
+		return 1;
+	}
+
+	private static void checkOffset(int offset) {
+		if (offset != 0) {
+			throw new IndexOutOfBoundsException("offset [" + offset + "] must be 0, there is a single register");
+		}
+	}
+
+	// how many values a bulk transfer moves, at most one
+	private static int checkTransfer(int offset, int[] values, int start, int count) {
+		checkOffset(offset);
+		if (start < 0 || count < 0 || start + count > values.length) {
+			throw new IndexOutOfBoundsException(
+					"[" + start + "," + (start + count) + ") not within [0," + values.length + ")");
+		}
+		if (count > 1) {
+			throw new IndexOutOfBoundsException("count [" + count + "] must be at most 1, there is a single register");
+		}
+		return count;
+	}
+}
@@ -0,0 +1,78 @@
+package rtsj.sandbox.use_cases.patient_monitoring.ward;
+
+import javax.realtime.AsyncEvent;
+import javax.realtime.MemoryArea;
+import javax.realtime.PriorityScheduler;
+import javax.realtime.RelativeTime;
+import javax.realtime.memory.LTMemory;
+
+import rtsj.sandbox.common.EventLogWriter;
+import rtsj.sandbox.use_cases.patient_monitoring.VoltageControl;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * The patient monitoring system (see patient_monitoring.App) for a whole ward:
+ * every bed raises its own heart-beat interrupt and has its own shock
+ * register, but the no-beat deadlines of all beds are kept by one timer wheel
+ * and thread rather than by a timer per patient.
+ * 
+ * NOTE: The beds' registers are assumed to be consecutive, starting at the
+ * single patient system's register.
+ * 
+ */
+public class App {
+
+	private static final int BEDS = 256;
+	private static final long MAX_NO_BEAT_MILLIS = 5_000;
+	// resolution of the no-beat deadlines
+	private static final long TICK_MILLIS = 10;
+	private static final long REGISTER_BASE = 0177760;
+	private static final String HEARTBEAT_INTERRUPT = "HEARTBEAT_INTERRUPT_";
+
+	public static void main(String... args) {
+		// drains the logs of the real-time threads to stdout at the lowest priority
+		new EventLogWriter(PriorityScheduler.instance().getMinPriority(), new RelativeTime(100, 0)).start();
+
+		RelativeTime maxNoBeatDuration = new RelativeTime(MAX_NO_BEAT_MILLIS, 0);
+
+		// component priorities
+		final int maxPriority = PriorityScheduler.instance().getMaxPriority();
+		final int heartBeatInterruptHandlerPriority = maxPriority;
+		final int watchdogPriority = maxPriority - 1;
+
+		VoltageControl[] voltageControls = new VoltageControl[BEDS];
+		for (int bed = 0; bed < BEDS; bed++) {
+			voltageControls[bed] = new VoltageControl(REGISTER_BASE + bed * Integer.BYTES, 0, 0, 1, 20);
+		}
+
+		// one watchdog for the ward, reporting no-beats in batches
+		HeartbeatTimerWheel watchdog = new HeartbeatTimerWheel(BEDS, new RelativeTime(TICK_MILLIS, 0),
+				watchdogPriority, new WardNoBeatAction(voltageControls));
+
+		// the heart-beat handlers do not allocate, so can share a memory area
+		MemoryArea interruptHandlerMemoryArea = new LTMemory(1024 * 2);
+		for (int bed = 0; bed < BEDS; bed++) {
+			AsyncEvent heartBeatEvent = new AsyncEvent();
+			heartBeatEvent.bindTo(HEARTBEAT_INTERRUPT + bed);
+			heartBeatEvent.addHandler(new WardHeartbeatHandler(heartBeatInterruptHandlerPriority, bed, watchdog,
+					voltageControls[bed], interruptHandlerMemoryArea));
+			watchdog.arm(bed, maxNoBeatDuration);
+		}
+
+		watchdog.start();
+	}
+}
@@ -0,0 +1,294 @@
+package rtsj.sandbox.use_cases.patient_monitoring.ward;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.realtime.PeriodicParameters;
+import javax.realtime.PriorityParameters;
+import javax.realtime.RealtimeThread;
+import javax.realtime.RelativeTime;
+
+import rtsj.sandbox.common.TimeUtils;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * The no-beat watchdog of every bed of a ward, in place of one OneShotTimer per
+ * patient.
+ * 
+ * Each bed's no-beat deadline is kept in a hierarchical timer wheel (LEVELS
+ * wheels of SLOTS slots, each slot of a level spanning a whole rotation of the
+ * level below) which is advanced by this single periodic thread, one tick per
+ * period. A slot is an intrusive doubly-linked list threaded through per-bed
+ * int arrays, so all storage is allocated in the constructor and neither
+ * beats nor ticks allocate.
+ * 
+ * A beat does not touch the wheel at all: beat() only records the tick it
+ * happened in (a single atomic store, so wait-free and O(1)). Deadlines are
+ * instead corrected lazily - when a bed's slot comes up, its deadline is
+ * recomputed from its last beat and, if that is still ahead, the bed is filed
+ * again. A bed whose patient beats steadily therefore costs a few list
+ * operations per no-beat interval, however fast the heart beats.
+ * 
+ * Beds whose deadline has passed are collected per tick and handed to the
+ * NoBeatBatchHandler in a single call (from this thread), after which each is
+ * re-armed with its interval, as NoBeatThresholdExceededAction does.
+ * 
+ * A no-beat is detected between the bed's interval and the interval plus one
+ * tick after its last beat, i.e. never early.
+ * 
+ * NOTE: The wheel (but not beat()) is guarded by this object's lock, which a
+ * tick holds for the beds of one slot plus any cascaded from the levels above.
+ * arm() and disarm() may therefore wait for a tick to be processed.
+ * 
+ * Thread-safe
+ * 
+ */
+public class HeartbeatTimerWheel extends RealtimeThread {
+
+	private static final int SLOT_BITS = 8;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 3;
+	private static final int TOP_SHIFT = (LEVELS - 1) * SLOT_BITS;
+	// a deadline further ahead than this would be filed in a top-level slot that
+	// has already been passed in the current rotation
+	private static final long MAX_INTERVAL_TICKS = ((long) (SLOTS - 1) << TOP_SHIFT) - 2;
+	private static final int NIL = -1;
+
+	private final long tickNanos;
+	private final long startNanos;
+	private final NoBeatBatchHandler handler;
+
+	// written by the beds' heartbeat handlers, read by the wheel
+	private final AtomicLongArray lastBeatTick;
+
+	// guarded by this
+	private final long[] intervalTicks;
+	private final long[] armedFromTick;
+	private final long[] expiryTick;
+	private final int[] slotOf;
+	private final int[] next;
+	private final int[] prev;
+	private final int[] heads;
+	private final int[] expired;
+	private long currentTick;
+	private long expiredCount;
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) beds > 0
+	 * 
+	 * 2) tick > 0
+	 * 
+	 * @param beds     beds are numbered 0 to beds - 1
+	 * @param tick     resolution of the no-beat deadlines
+	 * @param priority
+	 * @param handler  called for the beds whose deadline has passed
+	 */
+	public HeartbeatTimerWheel(int beds, RelativeTime tick, int priority, NoBeatBatchHandler handler) {
+		super(new PriorityParameters(priority), new PeriodicParameters(tick));
+		assert beds > 0 : "beds [" + beds + "] must be positive";
+		tickNanos = TimeUtils.toNanos(tick);
+		assert tickNanos > 0 : "tick must be positive";
+		this.handler = handler;
+		lastBeatTick = new AtomicLongArray(beds);
+		intervalTicks = new long[beds];
+		armedFromTick = new long[beds];
+		expiryTick = new long[beds];
+		slotOf = new int[beds];
+		next = new int[beds];
+		prev = new int[beds];
+		heads = new int[LEVELS * SLOTS];
+		expired = new int[beds];
+		Arrays.fill(slotOf, NIL);
+		Arrays.fill(heads, NIL);
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Starts (or restarts) watching the bed: a no-beat is reported if no beat is
+	 * recorded within maxNoBeatInterval from now.
+	 * 
+	 * REQUIRES:
+	 * 
+	 * 1) maxNoBeatInterval is at least one tick and less than MAX_INTERVAL_TICKS
+	 * ticks
+	 * 
+	 * @param bed
+	 * @param maxNoBeatInterval
+	 */
+	public synchronized void arm(int bed, RelativeTime maxNoBeatInterval) {
+		long interval = (TimeUtils.toNanos(maxNoBeatInterval) + tickNanos - 1) / tickNanos;
+		assert interval > 0 && interval <= MAX_INTERVAL_TICKS : "maxNoBeatInterval [" + interval
+				+ " ticks] must be at least one tick and at most " + MAX_INTERVAL_TICKS + " ticks";
+		intervalTicks[bed] = interval;
+		lastBeatTick.set(bed, nowTick());
+		armedFromTick[bed] = currentTick;
+		// the deadline may have moved earlier, so it cannot be corrected lazily
+		unlink(bed);
+		file(bed, deadline(bed));
+	}
+
+	/**
+	 * Stops watching the bed (e.g. on discharge).
+	 * 
+	 * @param bed
+	 */
+	public synchronized void disarm(int bed) {
+		intervalTicks[bed] = 0;
+		unlink(bed);
+	}
+
+	/**
+	 * Records a heart-beat from the bed. Wait-free and does not allocate.
+	 * 
+	 * @param bed
+	 */
+	public void beat(int bed) {
+		lastBeatTick.set(bed, nowTick());
+	}
+
+	/**
+	 * How many no-beats have been reported in total?
+	 * 
+	 * @return
+	 */
+	public synchronized long expiredCount() {
+		return expiredCount;
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			// catch up with any ticks missed through overruns
+			long nowTick = nowTick();
+			int count;
+			while ((count = advance(nowTick)) >= 0) {
+				if (count > 0) {
+					handler.noBeats(expired, count);
+				}
+			}
+			waitForNextPeriod();
+		}
+	}
+
+	private long nowTick() {
+		return (System.nanoTime() - startNanos) / tickNanos;
+	}
+
+	/**
+	 * Processes the next tick, if its time has come.
+	 * 
+	 * @return number of beds (in expired) whose deadline has passed, or -1 if
+	 *         already up to nowTick
+	 */
+	private synchronized int advance(long nowTick) {
+		if (currentTick >= nowTick) {
+			return -1;
+		}
+		currentTick++;
+		// bring down the beds of any level whose rotation has just completed, highest
+		// level first so that they end up in the right level below
+		for (int level = LEVELS - 1; level > 0; level--) {
+			int shift = level * SLOT_BITS;
+			if ((currentTick & ((1L << shift) - 1)) == 0) {
+				int bed = detach(level, (int) (currentTick >>> shift) & SLOT_MASK);
+				while (bed != NIL) {
+					int following = next[bed];
+					file(bed, expiryTick[bed]);
+					bed = following;
+				}
+			}
+		}
+		int count = 0;
+		int bed = detach(0, (int) currentTick & SLOT_MASK);
+		while (bed != NIL) {
+			int following = next[bed];
+			long deadline = deadline(bed);
+			if (deadline <= currentTick) {
+				expired[count++] = bed;
+				// re-arm for the next interval
+				armedFromTick[bed] = currentTick;
+				deadline = deadline(bed);
+			}
+			file(bed, deadline);
+			bed = following;
+		}
+		expiredCount += count;
+		return count;
+	}
+
+	// the first tick whose processing starts at least the interval after the last
+	// beat (or re-arm)
+	private long deadline(int bed) {
+		return Math.max(lastBeatTick.get(bed), armedFromTick[bed]) + intervalTicks[bed] + 1;
+	}
+
+	/**
+	 * REQUIRES:
+	 * 
+	 * 1) the bed is not filed
+	 * 
+	 * 2) currentTick <= tick < currentTick + MAX_INTERVAL_TICKS
+	 */
+	private void file(int bed, long tick) {
+		assert slotOf[bed] == NIL : "bed [" + bed + "] is already filed";
+		assert tick >= currentTick : "tick [" + tick + "] has already been processed";
+		int level = 0;
+		while (level < LEVELS - 1 && (tick >>> ((level + 1) * SLOT_BITS)) != (currentTick >>> ((level + 1)
+				* SLOT_BITS))) {
+			level++;
+		}
+		int slot = level * SLOTS + ((int) (tick >>> (level * SLOT_BITS)) & SLOT_MASK);
+		expiryTick[bed] = tick;
+		slotOf[bed] = slot;
+		prev[bed] = NIL;
+		next[bed] = heads[slot];
+		if (heads[slot] != NIL) {
+			prev[heads[slot]] = bed;
+		}
+		heads[slot] = bed;
+	}
+
+	private void unlink(int bed) {
+		int slot = slotOf[bed];
+		if (slot == NIL) {
+			return;
+		}
+		if (prev[bed] == NIL) {
+			heads[slot] = next[bed];
+		} else {
+			next[prev[bed]] = next[bed];
+		}
+		if (next[bed] != NIL) {
+			prev[next[bed]] = prev[bed];
+		}
+		slotOf[bed] = NIL;
+	}
+
+	// empties the slot, returning its first bed (the rest follow through next[])
+	private int detach(int level, int slot) {
+		int index = level * SLOTS + slot;
+		int first = heads[index];
+		heads[index] = NIL;
+		for (int bed = first; bed != NIL; bed = next[bed]) {
+			slotOf[bed] = NIL;
+		}
+		return first;
+	}
+}
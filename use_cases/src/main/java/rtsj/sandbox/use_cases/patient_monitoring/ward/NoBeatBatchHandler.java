@@ -0,0 +1,35 @@
+package rtsj.sandbox.use_cases.patient_monitoring.ward;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * Reacts to the beds of a ward which have had no heart-beat within their
+ * interval (see HeartbeatTimerWheel).
+ * 
+ */
+@FunctionalInterface
+public interface NoBeatBatchHandler {
+
+	/**
+	 * Called from the timer wheel's thread once per tick in which any deadlines
+	 * passed. Must not allocate and should be short, as the next tick waits for
+	 * it.
+	 * 
+	 * @param beds  the beds, only valid for the duration of the call
+	 * @param count number of beds in beds (from index 0)
+	 */
+	void noBeats(int[] beds, int count);
+}
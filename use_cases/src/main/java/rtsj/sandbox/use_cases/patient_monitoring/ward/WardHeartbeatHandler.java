@@ -1,10 +1,10 @@
-package rtsj.sandbox.use_cases.patient_monitoring;
+package rtsj.sandbox.use_cases.patient_monitoring.ward;
 
 import javax.realtime.AsyncEventHandler;
 import javax.realtime.MemoryArea;
-import javax.realtime.OneShotTimer;
 import javax.realtime.PriorityParameters;
-import javax.realtime.RelativeTime;
+
+import rtsj.sandbox.use_cases.patient_monitoring.VoltageControl;
 
 /**
  * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
@@ -20,20 +20,23 @@ import javax.realtime.RelativeTime;
  * 
  * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
  * AVAILABLE.
- *
+ * 
+ * 
+ * As HeartbeatInterruptHandler, for one bed of a ward, but recording the beat
+ * with the ward's timer wheel rather than rescheduling a timer of its own.
  * 
  */
-public class HeartbeatInterruptHandler extends AsyncEventHandler {
+public class WardHeartbeatHandler extends AsyncEventHandler {
 
-	private final RelativeTime maxNoBeatInterval;
-	private final OneShotTimer oneShotTimer;
+	private final int bed;
+	private final HeartbeatTimerWheel watchdog;
 	private final VoltageControl voltageControl;
 
-	public HeartbeatInterruptHandler(int priority, RelativeTime maxNoBeatInterval, OneShotTimer oneShotTimer,
-			VoltageControl voltageControl, MemoryArea memoryArea) {
+	public WardHeartbeatHandler(int priority, int bed, HeartbeatTimerWheel watchdog, VoltageControl voltageControl,
+			MemoryArea memoryArea) {
 		super(new PriorityParameters(priority), null, null, memoryArea, null, false);
-		this.maxNoBeatInterval = new RelativeTime(maxNoBeatInterval);
-		this.oneShotTimer = oneShotTimer;
+		this.bed = bed;
+		this.watchdog = watchdog;
 		this.voltageControl = voltageControl;
 	}
 
@@ -42,9 +45,9 @@ public class HeartbeatInterruptHandler extends AsyncEventHandler {
 	 */
 	@Override
 	public void handleAsyncEvent() {
-		// reset watchdog for next heartbeat duration
-		oneShotTimer.reschedule(maxNoBeatInterval);
+		// O(1), the wheel re-files the bed lazily
+		watchdog.beat(bed);
 		// reset voltage as it might have been increased
 		voltageControl.resetVoltage();
 	}
-}
\ No newline at end of file
+}
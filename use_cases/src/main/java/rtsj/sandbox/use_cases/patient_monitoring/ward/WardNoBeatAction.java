@@ -0,0 +1,57 @@
+package rtsj.sandbox.use_cases.patient_monitoring.ward;
+
+import rtsj.sandbox.common.EventLog;
+import rtsj.sandbox.common.LogCode;
+import rtsj.sandbox.use_cases.patient_monitoring.VoltageControl;
+
+/**
+ * THIS SOFTWARE IS PROVIDED BY Savvas Moysidis “AS IS” AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+ * EVENT SHALL Savvas Moysidis BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR
+ * OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ * IMPORTANT NOTE: COULD NOT BE TESTED AS PERSONAL EDITION VMs ARE NO LONGER
+ * AVAILABLE.
+ * 
+ * 
+ * The ward's counterpart of AlarmNotificationAction and
+ * VoltageApplicationAction: for every bed with no heart-beat, sounds the
+ * alarm and applies a (stepped up) shock.
+ * 
+ * Does not allocate.
+ * 
+ */
+public class WardNoBeatAction implements NoBeatBatchHandler {
+
+	private final VoltageControl[] voltageControls;
+	private final EventLog log;
+
+	/**
+	 * @param voltageControls indexed by bed
+	 */
+	public WardNoBeatAction(VoltageControl[] voltageControls) {
+		this.voltageControls = voltageControls;
+		// room for every bed to alarm and reach the max voltage between drains
+		this.log = EventLog.create("WardNoBeatAction", 2 * voltageControls.length);
+	}
+
+	@Override
+	public void noBeats(int[] beds, int count) {
+		// all alarms first, as they are the more urgent
+		for (int i = 0; i < count; i++) {
+			log.log(LogCode.ALARM_SOUNDED, beds[i]);
+		}
+		for (int i = 0; i < count; i++) {
+			boolean shockApplied = voltageControls[beds[i]].increaseVoltageAndApplyShock();
+			if (!shockApplied) {
+				log.log(LogCode.MAX_VOLTAGE_APPLIED, beds[i]);
+			}
+		}
+	}
+}